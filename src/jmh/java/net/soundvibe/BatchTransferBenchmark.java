@@ -0,0 +1,131 @@
+package net.soundvibe;
+
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.*;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.json.Json;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Transfers accepted per second by the whole application when submitted as single {@code POST /transfer} requests
+ * over many concurrent keep-alive connections versus as NDJSON {@code POST /transfers/batch} requests of
+ * {@code batchSize} transfers each. Both wait for the responses only, not for the transfers to be processed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchTransferBenchmark {
+
+    private static final int TRANSFERS = 1000;
+    private static final int CONNECTIONS = 32;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private Vertx server;
+    private Vertx client;
+    private WebClient webClient;
+    private Account accountFrom;
+    private Account accountTo;
+
+    @Setup
+    public void setUp() throws Exception {
+        var port = freePort();
+        server = Application.startHttpServer(port);
+        client = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(4));
+        webClient = WebClient.create(client, new WebClientOptions()
+                .setDefaultPort(port)
+                .setKeepAlive(true)
+                .setMaxPoolSize(CONNECTIONS));
+
+        accountFrom = Json.parse(send(HttpMethod.POST, "/account", Json.toBuffer(account(1_000_000_000L))), Account.class);
+        accountTo = Json.parse(send(HttpMethod.POST, "/account", Json.toBuffer(account(0))), Account.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void singleTransfers() throws InterruptedException {
+        var responses = new CountDownLatch(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            webClient.post("/transfer")
+                    .putHeader("content-type", "application/json")
+                    .sendBuffer(Json.toBuffer(transferMoney()), response -> countDown(responses, response));
+        }
+        await(responses);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void batchTransfers() throws InterruptedException {
+        int requests = TRANSFERS / batchSize;
+        var responses = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            var body = Buffer.buffer(batchSize * 160);
+            for (int j = 0; j < batchSize; j++) {
+                body.appendBuffer(Json.toBuffer(transferMoney())).appendString("\n");
+            }
+            webClient.post("/transfers/batch")
+                    .putHeader("content-type", "application/x-ndjson")
+                    .sendBuffer(body, response -> countDown(responses, response));
+        }
+        await(responses);
+    }
+
+    private Buffer send(HttpMethod method, String uri, Buffer body) throws Exception {
+        var future = new CompletableFuture<Buffer>();
+        webClient.request(method, uri)
+                .putHeader("content-type", "application/json")
+                .sendBuffer(body, response -> {
+                    if (response.succeeded()) {
+                        future.complete(response.result().bodyAsBuffer());
+                    } else {
+                        future.completeExceptionally(response.cause());
+                    }
+                });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private TransferMoney transferMoney() {
+        return new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(1, "EUR"));
+    }
+
+    private static Account account(long balance) {
+        return new Account(UUID.randomUUID().toString(), "Name", "Surname", Money.of(balance, "EUR"), null);
+    }
+
+    private static void countDown(CountDownLatch responses, AsyncResult<?> response) {
+        if (response.succeeded()) {
+            responses.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch responses) throws InterruptedException {
+        if (!responses.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for responses");
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.soundvibe;
+
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.*;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.json.Json;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * HTTP request throughput of the whole application per number of deployed HTTP verticle instances, driven by a
+ * client with many concurrent keep-alive connections. Only scales with instances when there are cores to spare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpInstancesBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int CONNECTIONS = 32;
+
+    @Param({"1", "2", "4"})
+    public int instances;
+
+    private Vertx server;
+    private Vertx client;
+    private WebClient webClient;
+    private int port;
+    private String transferStatusUri;
+    private Account accountFrom;
+    private Account accountTo;
+
+    @Setup
+    public void setUp() throws Exception {
+        port = freePort();
+        server = Application.startHttpServer(port, instances);
+        client = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(4));
+        webClient = WebClient.create(client, new WebClientOptions()
+                .setDefaultPort(port)
+                .setKeepAlive(true)
+                .setMaxPoolSize(CONNECTIONS));
+
+        accountFrom = Json.parse(send(HttpMethod.POST, "/account", Json.toBuffer(account(1_000_000_000L))), Account.class);
+        accountTo = Json.parse(send(HttpMethod.POST, "/account", Json.toBuffer(account(0))), Account.class);
+        var transferMoney = transferMoney();
+        send(HttpMethod.POST, "/transfer?wait=5000", Json.toBuffer(transferMoney));
+        transferStatusUri = "/transfer/" + transferMoney.id;
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transferStatus() throws InterruptedException {
+        var responses = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            webClient.get(transferStatusUri).send(response -> countDown(responses, response));
+        }
+        await(responses);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transfer() throws InterruptedException {
+        var responses = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            webClient.post("/transfer")
+                    .putHeader("content-type", "application/json")
+                    .sendBuffer(Json.toBuffer(transferMoney()), response -> countDown(responses, response));
+        }
+        await(responses);
+    }
+
+    private Buffer send(HttpMethod method, String uri, Buffer body) throws Exception {
+        var future = new CompletableFuture<Buffer>();
+        webClient.request(method, uri)
+                .putHeader("content-type", "application/json")
+                .sendBuffer(body, response -> {
+                    if (response.succeeded()) {
+                        future.complete(response.result().bodyAsBuffer());
+                    } else {
+                        future.completeExceptionally(response.cause());
+                    }
+                });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private TransferMoney transferMoney() {
+        return new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(1, "EUR"));
+    }
+
+    private static Account account(long balance) {
+        return new Account(UUID.randomUUID().toString(), "Name", "Surname", Money.of(balance, "EUR"), null);
+    }
+
+    private static void countDown(CountDownLatch responses, AsyncResult<?> response) {
+        if (response.succeeded()) {
+            responses.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch responses) throws InterruptedException {
+        if (!responses.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for responses");
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
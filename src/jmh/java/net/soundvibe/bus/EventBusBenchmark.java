@@ -0,0 +1,66 @@
+package net.soundvibe.bus;
+
+import io.reactivex.disposables.CompositeDisposable;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of publishing one event of a transfer (credit, debit, outcome) with subscribers evenly spread over the
+ * event types, as each subscriber in the application observes only the types it handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+
+    private static final List<Class<? extends Event>> TYPES = List.of(
+            AccountCredited.class, AccountDebited.class, MoneyTransferred.class, MoneyTransferFailed.class, AccountOpened.class);
+
+    @Param({"2", "10", "50"})
+    public int subscribers;
+
+    @Param({"rx", "routing"})
+    public String bus;
+
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+    private Event[] events;
+    private EventBus eventBus;
+    private long received;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        eventBus = "routing".equals(bus) ? new RoutingEventBus() : new RxEventBus();
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(eventBus.observeEvents(TYPES.get(i % TYPES.size())).subscribe(event -> received++));
+        }
+        var account = new Account("from", "Foo", "Bar", Money.of(10, "EUR"), "id");
+        events = new Event[] {
+                new AccountCredited(Money.of(10, "EUR"), account),
+                new AccountDebited(Money.of(10, "EUR"), account),
+                new MoneyTransferred("id", Money.of(10, "EUR"), "from", "to"),
+                new MoneyTransferFailed("id", "cause")
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subscriptions.clear();
+        eventBus.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        eventBus.publish(events[index++ & 3]);
+    }
+}
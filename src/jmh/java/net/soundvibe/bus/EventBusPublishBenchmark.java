@@ -0,0 +1,60 @@
+package net.soundvibe.bus;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.domain.transfer.event.MoneyTransferred;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish throughput and latency of the event bus implementations with one subscriber. {@code publish} measures the
+ * cost to the publisher only, {@code publishAndReceive} the hand over until the subscriber has seen the event (add
+ * {@code -t 4} for concurrent publishers; the ring consumer needs a spare core for {@code busy_spin} and {@code yield}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusPublishBenchmark {
+
+    @Param({"rx", "ring_park", "ring_yield", "ring_busy_spin"})
+    public String bus;
+
+    private final MoneyTransferred event = new MoneyTransferred("id", Money.of(10, "EUR"), "from", "to");
+    private final AtomicLong received = new AtomicLong();
+    private EventBus eventBus;
+    private Disposable subscription;
+
+    @Setup
+    public void setUp() {
+        eventBus = "rx".equals(bus) ? new RxEventBus() :
+                new RingBufferEventBus(RingBufferEventBus.DEFAULT_CAPACITY, false,
+                        WaitStrategy.valueOf(bus.substring("ring_".length()).toUpperCase()));
+        subscription = eventBus.observeEvents(MoneyTransferred.class).subscribe(event -> received.lazySet(received.get() + 1));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subscription.dispose();
+        eventBus.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        eventBus.publish(event);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void publishAndReceive() {
+        long expected = received.get() + 1;
+        eventBus.publish(event);
+        while (received.get() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.soundvibe.domain.account;
+
+import net.soundvibe.domain.base.*;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares balance arithmetic on Moneta {@link Money} (the previous account representation) with fixed point
+ * {@link MinorUnits}. Run with {@code -prof gc} to see bytes allocated per transfer ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBalanceBenchmark {
+
+    private final Money amount = Money.of(10.11, "EUR");
+
+    private Money moneyFrom;
+    private Money moneyTo;
+    private long minorUnitsFrom;
+    private long minorUnitsTo;
+    private long minorUnitsAmount;
+
+    private static final int TRANSFERS = 1 << 12;
+
+    private Ledger ledger;
+    private TransferMoney[] transfers;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        moneyFrom = Money.of(1000, "EUR");
+        moneyTo = Money.of(1000, "EUR");
+        minorUnitsFrom = MinorUnits.of(moneyFrom);
+        minorUnitsTo = MinorUnits.of(moneyTo);
+        minorUnitsAmount = MinorUnits.of(amount);
+
+        var accountRepository = new AccountRepository();
+        var from = accountRepository.open(new Account("from", "Foo", "Bar", moneyFrom, null));
+        var to = accountRepository.open(new Account("to", "Bar", "Foo", moneyTo, null));
+        ledger = new Ledger(accountRepository, new TransferIdempotencyIndex(TRANSFERS / 4, Duration.ofHours(1)));
+        transfers = new TransferMoney[TRANSFERS];
+        for (int i = 0; i < TRANSFERS; i += 2) {
+            transfers[i] = new TransferMoney("forward-" + i, from.id, to.id, amount);
+            transfers[i + 1] = new TransferMoney("backward-" + i, to.id, from.id, amount);
+        }
+    }
+
+    @Benchmark
+    public boolean moneyArithmetic() {
+        var credited = moneyFrom.subtract(amount);
+        var debited = moneyTo.add(amount);
+        moneyFrom = debited;
+        moneyTo = credited;
+        return credited.isNegative();
+    }
+
+    @Benchmark
+    public boolean minorUnitsArithmetic() {
+        var credited = MinorUnits.subtract(minorUnitsFrom, minorUnitsAmount);
+        var debited = MinorUnits.add(minorUnitsTo, minorUnitsAmount);
+        minorUnitsFrom = debited;
+        minorUnitsTo = credited;
+        return credited < 0;
+    }
+
+    @Benchmark
+    public List<Event> ledgerTransfer() {
+        return ledger.transfer(transfers[index++ & (TRANSFERS - 1)]);
+    }
+}
@@ -0,0 +1,84 @@
+package net.soundvibe.domain.account;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End to end throughput of the single threaded {@link AccountProcessor} per max micro-batch size (1 applies and
+ * publishes every transfer on its own), with a subscriber per outcome type as in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountProcessorBatchBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    @Param({"1", "16", "256"})
+    public int maxBatchSize;
+
+    @Param({"routing", "ring"})
+    public String bus;
+
+    @Param({"10000"})
+    public int accounts;
+
+    private final AtomicInteger outcomes = new AtomicInteger();
+    private EventBus eventBus;
+    private Disposable processor;
+    private Disposable transferredCounter;
+    private Disposable failedCounter;
+    private TransferMoney[] transfers;
+    private volatile CountDownLatch batchDone;
+
+    @Setup
+    public void setUp() {
+        var accountRepository = new AccountRepository();
+        for (int i = 0; i < accounts; i++) {
+            accountRepository.open(new Account(String.valueOf(i), "Foo", "Bar", Money.of(1_000_000_000, "EUR"), null));
+        }
+        eventBus = "ring".equals(bus) ? new RingBufferEventBus() : new RoutingEventBus();
+        processor = new AccountProcessor(accountRepository, new TransferIdempotencyIndex(BATCH / 8, Duration.ofHours(1)),
+                maxBatchSize, AccountProcessor.DEFAULT_MAX_BATCH_DELAY_MILLIS).subscribe(eventBus);
+        transferredCounter = eventBus.observeEvents(MoneyTransferred.class).subscribe(event -> countOutcome());
+        failedCounter = eventBus.observeEvents(MoneyTransferFailed.class).subscribe(event -> countOutcome());
+        transfers = LedgerBenchmark.transfers(accounts, 0.0, Money.of(0.01, "EUR"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        transferredCounter.dispose();
+        failedCounter.dispose();
+        processor.dispose();
+        eventBus.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transferBatch() throws InterruptedException {
+        batchDone = new CountDownLatch(1);
+        int offset = ThreadLocalRandom.current().nextInt(transfers.length);
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.publish(transfers[(offset + i) % transfers.length]);
+        }
+        batchDone.await();
+    }
+
+    private void countOutcome() {
+        if (outcomes.incrementAndGet() % BATCH == 0) {
+            batchDone.countDown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.soundvibe.domain.account;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End to end throughput of a batch of transfers published to the event bus until all outcomes are observed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountProcessorBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    @Param({"1", "2", "4"})
+    public int lanes;
+
+    @Param({"10000"})
+    public int accounts;
+
+    @Param({"0.0", "0.9"})
+    public double contention;
+
+    private final AtomicInteger outcomes = new AtomicInteger();
+    private EventBus eventBus;
+    private Disposable processor;
+    private Disposable outcomeCounter;
+    private TransferMoney[] transfers;
+    private volatile CountDownLatch batchDone;
+
+    @Setup
+    public void setUp() {
+        var accountRepository = new AccountRepository();
+        for (int i = 0; i < accounts; i++) {
+            accountRepository.open(new Account(String.valueOf(i), "Foo", "Bar", Money.of(1_000_000_000, "EUR"), null));
+        }
+        eventBus = new RxEventBus();
+        processor = new PartitionedAccountProcessor(accountRepository, lanes,
+                new TransferIdempotencyIndex(BATCH / 8, Duration.ofHours(1))).subscribe(eventBus);
+        outcomeCounter = eventBus.observeEvents()
+                .filter(event -> event instanceof MoneyTransferred || event instanceof MoneyTransferFailed)
+                .subscribe(event -> {
+                    if (outcomes.incrementAndGet() % BATCH == 0) {
+                        batchDone.countDown();
+                    }
+                });
+        transfers = LedgerBenchmark.transfers(accounts, contention, Money.of(0.01, "EUR"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        outcomeCounter.dispose();
+        processor.dispose();
+        eventBus.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transferBatch() throws InterruptedException {
+        batchDone = new CountDownLatch(1);
+        int offset = ThreadLocalRandom.current().nextInt(transfers.length);
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.publish(transfers[(offset + i) % transfers.length]);
+        }
+        batchDone.await();
+    }
+}
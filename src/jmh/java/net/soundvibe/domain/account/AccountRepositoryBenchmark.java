@@ -0,0 +1,69 @@
+package net.soundvibe.domain.account;
+
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountRepositoryBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int accounts;
+
+    private AccountRepository accountRepository;
+    private Account[] saved;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setUp() {
+        accountRepository = new AccountRepository();
+        saved = new Account[accounts];
+        for (int i = 0; i < accounts; i++) {
+            saved[i] = accountRepository.open(new Account(String.valueOf(i), "Foo", "Bar", Money.of(100, "EUR"), null));
+        }
+    }
+
+    @Benchmark
+    public Optional<Account> findById(Cursor cursor) {
+        return accountRepository.findById(saved[next(cursor)].id);
+    }
+
+    @Benchmark
+    public Account save(Cursor cursor) {
+        return accountRepository.save(saved[next(cursor)]);
+    }
+
+    /**
+     * Read-modify-write of one account retried until it wins, run with {@code -t} threads to see contention.
+     */
+    @Benchmark
+    public Account compareAndSet(Cursor cursor) {
+        var id = saved[next(cursor)].id;
+        while (true) {
+            var current = accountRepository.findById(id).orElseThrow();
+            var updated = current.credit(1L, "a".equals(current.transactionId) ? "b" : "a");
+            if (accountRepository.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private int next(Cursor cursor) {
+        int index = cursor.index++;
+        if (cursor.index == accounts) {
+            cursor.index = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,113 @@
+package net.soundvibe.domain.account;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End to end transfer throughput when destinations follow a Zipfian distribution (a few merchant accounts receive
+ * most transfers), with the hottest accounts kept as plain accounts owned by one lane or sharded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final int TRANSFERS = 1 << 17;
+    private static final int HOT_ACCOUNTS = 8;
+
+    @Param({"4"})
+    public int lanes;
+
+    @Param({"10000"})
+    public int accounts;
+
+    @Param({"1.0"})
+    public double zipfExponent;
+
+    @Param({"0", "4"})
+    public int shards;
+
+    private final AtomicInteger outcomes = new AtomicInteger();
+    private EventBus eventBus;
+    private Disposable processor;
+    private Disposable outcomeCounter;
+    private TransferMoney[] transfers;
+    private volatile CountDownLatch batchDone;
+
+    @Setup
+    public void setUp() {
+        var hotAccountIds = new HashSet<String>();
+        for (int i = 0; shards > 0 && i < HOT_ACCOUNTS; i++) {
+            hotAccountIds.add(String.valueOf(i));
+        }
+        var accountRepository = new AccountRepository(hotAccountIds, Math.max(shards, 1));
+        for (int i = 0; i < accounts; i++) {
+            accountRepository.open(new Account(String.valueOf(i), "Foo", "Bar", Money.of(1_000_000_000, "EUR"), null));
+        }
+        eventBus = new RxEventBus();
+        processor = new PartitionedAccountProcessor(accountRepository, lanes,
+                new TransferIdempotencyIndex(BATCH / 8, Duration.ofHours(1))).subscribe(eventBus);
+        outcomeCounter = eventBus.observeEvents()
+                .filter(event -> event instanceof MoneyTransferred || event instanceof MoneyTransferFailed)
+                .subscribe(event -> {
+                    if (outcomes.incrementAndGet() % BATCH == 0) {
+                        batchDone.countDown();
+                    }
+                });
+        transfers = zipfianTransfers(accounts, zipfExponent, Money.of(0.01, "EUR"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        outcomeCounter.dispose();
+        processor.dispose();
+        eventBus.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transferBatch() throws InterruptedException {
+        batchDone = new CountDownLatch(1);
+        int offset = ThreadLocalRandom.current().nextInt(transfers.length);
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.publish(transfers[(offset + i) % transfers.length]);
+        }
+        batchDone.await();
+    }
+
+    /**
+     * Transfers from uniformly chosen accounts to accounts chosen with probability proportional to
+     * {@code 1 / rank^exponent}, account {@code "0"} being the hottest.
+     */
+    static TransferMoney[] zipfianTransfers(int accounts, double exponent, Money amount) {
+        var cumulative = new double[accounts];
+        double sum = 0;
+        for (int rank = 0; rank < accounts; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        var random = new SplittableRandom(42);
+        var transfers = new TransferMoney[TRANSFERS];
+        for (int i = 0; i < transfers.length; i++) {
+            int to = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            to = to < 0 ? -to - 1 : to;
+            int from = (to + 1 + random.nextInt(accounts - 1)) % accounts;
+            transfers[i] = new TransferMoney(UUID.randomUUID().toString(), String.valueOf(from), String.valueOf(to), amount);
+        }
+        return transfers;
+    }
+}
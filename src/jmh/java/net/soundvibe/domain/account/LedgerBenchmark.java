@@ -0,0 +1,66 @@
+package net.soundvibe.domain.account;
+
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single transfer cost as seen by the processors. {@code contention} is the share of transfers touching the
+ * first (hot) account, the rest pick both accounts uniformly. The idempotency index forgets transfer ids before
+ * they are reused, so every transfer is applied.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerBenchmark {
+
+    private static final int TRANSFERS = 1 << 16;
+
+    @Param({"10", "10000", "1000000"})
+    public int accounts;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double contention;
+
+    private Ledger ledger;
+    private TransferMoney[] transfers;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        var accountRepository = new AccountRepository();
+        for (int i = 0; i < accounts; i++) {
+            accountRepository.open(new Account(String.valueOf(i), "Foo", "Bar", Money.of(1_000_000_000, "EUR"), null));
+        }
+        ledger = new Ledger(accountRepository, new TransferIdempotencyIndex(TRANSFERS / 4, Duration.ofHours(1)));
+        transfers = transfers(accounts, contention, Money.of(0.01, "EUR"));
+    }
+
+    @Benchmark
+    public List<Event> transfer() {
+        return ledger.transfer(transfers[index++ & (TRANSFERS - 1)]);
+    }
+
+    static TransferMoney[] transfers(int accounts, double contention, Money amount) {
+        var random = new Random(accounts);
+        var transfers = new TransferMoney[TRANSFERS];
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextDouble() < contention ? 0 : random.nextInt(accounts);
+            int to = random.nextInt(accounts);
+            if (from == to) {
+                to = (to + 1) % accounts;
+            }
+            transfers[i] = new TransferMoney(UUID.randomUUID().toString(), String.valueOf(from), String.valueOf(to), amount);
+        }
+        return transfers;
+    }
+}
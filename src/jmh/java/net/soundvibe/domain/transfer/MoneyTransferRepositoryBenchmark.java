@@ -0,0 +1,46 @@
+package net.soundvibe.domain.transfer;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.AccountCredited;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyTransferRepositoryBenchmark {
+
+    private static final int EVENTS = 1 << 16;
+
+    private MoneyTransferRepository moneyTransferRepository;
+    private Event[] events;
+    private int index;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        moneyTransferRepository = new MoneyTransferRepository();
+        events = new Event[EVENTS];
+        var account = new Account("id", "Foo", "Bar", Money.of(100, "EUR"), null);
+        for (int i = 0; i < EVENTS; i++) {
+            var transferId = UUID.randomUUID().toString();
+            switch (i % 3) {
+                case 0: events[i] = new MoneyTransferred(transferId, Money.of(10, "EUR"), "from", "to"); break;
+                case 1: events[i] = new MoneyTransferFailed(transferId, "cause"); break;
+                default: events[i] = new AccountCredited(Money.of(10, "EUR"), account);
+            }
+        }
+    }
+
+    @Benchmark
+    public void updateStore() {
+        moneyTransferRepository.updateStore(events[index++ & (EVENTS - 1)]);
+    }
+}
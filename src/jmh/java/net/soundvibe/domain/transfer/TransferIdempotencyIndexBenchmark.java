@@ -0,0 +1,58 @@
+package net.soundvibe.domain.transfer;
+
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of a new transfer id (usually rejected by the Bloom filter) and of a duplicate one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferIdempotencyIndexBenchmark {
+
+    private static final int IDS = 1 << 16;
+
+    @Param({"1000000"})
+    public int entries;
+
+    private TransferIdempotencyIndex index;
+    private String[] recorded;
+    private String[] unknown;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        index = new TransferIdempotencyIndex(entries, Duration.ofHours(1));
+        recorded = new String[IDS];
+        for (int i = 0; i < entries; i++) {
+            var transferId = UUID.randomUUID().toString();
+            index.record(transferId, new MoneyTransferFailed(transferId, "cause"));
+            if (i < IDS) {
+                recorded[i] = transferId;
+            }
+        }
+        unknown = new String[IDS];
+        for (int i = 0; i < IDS; i++) {
+            unknown[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @Benchmark
+    public Event findNew() {
+        return index.find(unknown[position++ & (IDS - 1)]);
+    }
+
+    @Benchmark
+    public Event findDuplicate() {
+        return index.find(recorded[position++ & (IDS - 1)]);
+    }
+}
@@ -0,0 +1,73 @@
+package net.soundvibe.journal;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.MoneyTransferred;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal write throughput in events per second for the three events produced by every successful transfer,
+ * committed (forced to disk) once per group of {@code batch} events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJournalBenchmark {
+
+    @Param({"3", "300", "3000"})
+    public int batch;
+
+    private Path directory;
+    private EventJournal journal;
+    private List<Event> events;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new EventJournal(directory, 64 * 1024 * 1024, 1L, batch);
+        var from = new Account(UUID.randomUUID().toString(), "Foo", "Bar", Money.of(1000, "EUR"), null);
+        var to = new Account(UUID.randomUUID().toString(), "Bar", "Foo", Money.of(1000, "EUR"), null);
+        var amount = Money.of(10.11, "EUR");
+        events = new ArrayList<>(batch);
+        for (int i = 0; i < batch / 3; i++) {
+            events.add(new AccountCredited(amount, from));
+            events.add(new AccountDebited(amount, to));
+            events.add(new MoneyTransferred(UUID.randomUUID().toString(), amount, from.id, to.id));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void commit(EventCount eventCount) {
+        journal.commit(events);
+        eventCount.events += events.size();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class EventCount {
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+}
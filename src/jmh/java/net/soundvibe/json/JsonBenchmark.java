@@ -0,0 +1,102 @@
+package net.soundvibe.json;
+
+import io.vertx.core.buffer.Buffer;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final TransferMoney transferMoney = new TransferMoney("a8f1a2a6-3c2e-4c1e-9b7a-0f1d2c3b4a59",
+            "account-from", "account-to", Money.of(10.11, "EUR"));
+    private final Account account = new Account("a8f1a2a6-3c2e-4c1e-9b7a-0f1d2c3b4a59",
+            "Linas", "Naginionis", Money.of(25.25, "EUR"), null);
+    private final String transferMoneyJson = Json.toString(transferMoney);
+    private final String accountJson = Json.toString(account);
+    private final Buffer transferMoneyBody = Buffer.buffer(transferMoneyJson);
+    private final Buffer accountBody = Buffer.buffer(accountJson);
+    private final byte[] transferMoneyBatch = IntStream.range(0, BATCH_SIZE)
+            .mapToObj(i -> transferMoneyJson)
+            .collect(Collectors.joining("\n"))
+            .getBytes(UTF_8);
+
+    @Benchmark
+    public TransferMoney parseTransferMoney() {
+        return Json.parse(transferMoneyJson, TransferMoney.class);
+    }
+
+    /**
+     * Request body path through a String, as handlers did before reading buffers directly.
+     */
+    @Benchmark
+    public TransferMoney parseTransferMoneyBodyAsString() {
+        return Json.parse(transferMoneyBody.toString(UTF_8), TransferMoney.class);
+    }
+
+    @Benchmark
+    public TransferMoney parseTransferMoneyBuffer() {
+        return Json.parse(transferMoneyBody, TransferMoney.class);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void parseTransferMoneyStream(Blackhole blackhole) {
+        var parser = Json.streamParser(TransferMoney.class, blackhole::consume);
+        for (int offset = 0; offset < transferMoneyBatch.length; offset += CHUNK_SIZE) {
+            parser.feed(Arrays.copyOfRange(transferMoneyBatch, offset, Math.min(transferMoneyBatch.length, offset + CHUNK_SIZE)));
+        }
+        parser.end();
+    }
+
+    @Benchmark
+    public String transferMoneyToString() {
+        return Json.toString(transferMoney);
+    }
+
+    @Benchmark
+    public Buffer transferMoneyStringToBuffer() {
+        return Buffer.buffer(Json.toString(transferMoney));
+    }
+
+    @Benchmark
+    public Buffer transferMoneyToBuffer() {
+        return Json.toBuffer(transferMoney);
+    }
+
+    @Benchmark
+    public Account parseAccount() {
+        return Json.parse(accountJson, Account.class);
+    }
+
+    @Benchmark
+    public String accountToString() {
+        return Json.toString(account);
+    }
+
+    @Benchmark
+    public Account parseAccountBuffer() {
+        return Json.parse(accountBody, Account.class);
+    }
+
+    @Benchmark
+    public Buffer accountToBuffer() {
+        return Json.toBuffer(account);
+    }
+}
@@ -0,0 +1,160 @@
+package net.soundvibe.tcp;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.*;
+import io.vertx.core.net.*;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.*;
+import io.vertx.ext.web.handler.BodyHandler;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.account.*;
+import net.soundvibe.domain.transfer.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.journal.EventCodec;
+import net.soundvibe.json.Json;
+import net.soundvibe.web.TransferHandler;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Transfers per second submitted over a single connection and answered with their outcome, comparing the binary
+ * TCP gateway with {@code POST /transfer?wait} over pipelined HTTP/1.1 with a JSON body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferGatewayBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"tcp", "http"})
+    public String transport;
+
+    private Vertx vertx;
+    private EventBus eventBus;
+    private final CompositeDisposable subscriptions = new CompositeDisposable();
+    private final ByteBuffer frameBuffer = ByteBuffer.allocate(512);
+    private Account accountFrom;
+    private Account accountTo;
+    private NetSocket socket;
+    private WebClient webClient;
+    private int httpPort;
+    private volatile CountDownLatch outcomes;
+
+    @Setup
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        eventBus = new RxEventBus();
+        var accountRepository = new AccountRepository();
+        var admissionController = new TransferAdmissionController(BATCH * 2);
+        var completions = new TransferCompletions();
+        subscriptions.addAll(
+                new PartitionedAccountProcessor(accountRepository, 1).subscribe(eventBus),
+                admissionController.subscribe(eventBus),
+                completions.subscribe(eventBus));
+        accountFrom = accountRepository.open(new Account(UUID.randomUUID().toString(), "From", "Surname", Money.of(1_000_000_000L, "EUR"), null));
+        accountTo = accountRepository.open(new Account(UUID.randomUUID().toString(), "To", "Surname", Money.of(0, "EUR"), null));
+
+        var gateway = new TransferGateway(eventBus, admissionController, completions, BATCH);
+        var netServer = TransferGatewayBenchmark.<NetServer>await(handler -> vertx.createNetServer(new NetServerOptions().setTcpNoDelay(true))
+                .connectHandler(gateway::handle)
+                .listen(0, "localhost", handler));
+        socket = TransferGatewayBenchmark.<NetSocket>await(handler -> vertx.createNetClient(new NetClientOptions().setTcpNoDelay(true))
+                .connect(netServer.actualPort(), "localhost", handler));
+        var parser = RecordParser.newFixed(Integer.BYTES);
+        parser.handler(new Handler<>() {
+            boolean readingLength = true;
+
+            @Override
+            public void handle(Buffer buffer) {
+                if (readingLength) {
+                    parser.fixedSizeMode(buffer.getInt(0));
+                } else {
+                    parser.fixedSizeMode(Integer.BYTES);
+                    outcomes.countDown();
+                }
+                readingLength = !readingLength;
+            }
+        });
+        socket.handler(parser);
+
+        var router = Router.router(vertx);
+        router.route().handler(BodyHandler.create());
+        router.post("/transfer").handler(new TransferHandler(eventBus, new MoneyTransferRepository(), admissionController,
+                completions, 1L, 30_000L)::transfer);
+        var httpServer = TransferGatewayBenchmark.<HttpServer>await(handler -> vertx.createHttpServer()
+                .requestHandler(router)
+                .listen(0, "localhost", handler));
+        httpPort = httpServer.actualPort();
+        webClient = WebClient.create(vertx, new WebClientOptions()
+                .setKeepAlive(true)
+                .setPipelining(true)
+                .setPipeliningLimit(BATCH)
+                .setMaxPoolSize(1));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        subscriptions.dispose();
+        eventBus.close();
+        vertx.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transfer() throws InterruptedException {
+        outcomes = new CountDownLatch(BATCH);
+        if ("tcp".equals(transport)) {
+            var frames = Buffer.buffer();
+            for (int i = 0; i < BATCH; i++) {
+                frameBuffer.clear();
+                EventCodec.encode(transferMoney(), frameBuffer);
+                frameBuffer.flip();
+                frames.appendInt(frameBuffer.remaining()).appendBytes(frameBuffer.array(), 0, frameBuffer.remaining());
+            }
+            socket.write(frames);
+        } else {
+            vertx.runOnContext(v -> {
+                for (int i = 0; i < BATCH; i++) {
+                    webClient.post(httpPort, "localhost", "/transfer?wait=30000")
+                            .putHeader("content-type", "application/json")
+                            .sendBuffer(Json.toBuffer(transferMoney()), response -> {
+                                if (response.succeeded()) {
+                                    outcomes.countDown();
+                                }
+                            });
+                }
+            });
+        }
+        if (!outcomes.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for transfer outcomes");
+        }
+    }
+
+    private TransferMoney transferMoney() {
+        return new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(1, "EUR"));
+    }
+
+    private static <T> T await(Consumer<Handler<AsyncResult<T>>> operation) throws Exception {
+        var future = new CompletableFuture<T>();
+        operation.accept(result -> {
+            if (result.succeeded()) {
+                future.complete(result.result());
+            } else {
+                future.completeExceptionally(result.cause());
+            }
+        });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
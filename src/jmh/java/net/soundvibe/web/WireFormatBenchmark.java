@@ -0,0 +1,57 @@
+package net.soundvibe.web;
+
+import io.vertx.core.buffer.Buffer;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.MoneyTransferred;
+import org.javamoney.moneta.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding throughput of the transfer request and its outcome per wire format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "CBOR"})
+    public WireFormat format;
+
+    private final TransferMoney transferMoney = new TransferMoney("a8f1a2a6-3c2e-4c1e-9b7a-0f1d2c3b4a59",
+            "0b6f6c7e-2f52-4f39-8d0c-6f1e7f5d2a11", "5d3c2b1a-9e8f-4a7b-8c6d-1e2f3a4b5c6d", Money.of(10.11, "EUR"));
+    private final MoneyTransferred moneyTransferred = MoneyTransferred.from(transferMoney);
+
+    private Buffer transferMoneyBody;
+    private Buffer moneyTransferredBody;
+
+    @Setup
+    public void setUp() {
+        transferMoneyBody = format.encode(transferMoney);
+        moneyTransferredBody = format.encode(moneyTransferred);
+    }
+
+    @Benchmark
+    public TransferMoney decodeTransferMoney() {
+        return format.decode(transferMoneyBody, TransferMoney.class);
+    }
+
+    @Benchmark
+    public Buffer encodeTransferMoney() {
+        return format.encode(transferMoney);
+    }
+
+    @Benchmark
+    public MoneyTransferred decodeMoneyTransferred() {
+        return format.decode(moneyTransferredBody, MoneyTransferred.class);
+    }
+
+    @Benchmark
+    public Buffer encodeMoneyTransferred() {
+        return format.encode(moneyTransferred);
+    }
+}
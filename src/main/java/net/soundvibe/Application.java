@@ -1,9 +1,11 @@
 package net.soundvibe;
 
 import io.micrometer.core.instrument.Metrics;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
 import io.vertx.core.*;
-import io.vertx.core.http.*;
 import io.vertx.core.logging.SLF4JLogDelegateFactory;
+import io.vertx.core.net.NetServerOptions;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.*;
 import io.vertx.micrometer.*;
@@ -11,66 +13,140 @@ import io.vertx.micrometer.backends.*;
 import net.soundvibe.bus.*;
 import net.soundvibe.domain.account.*;
 import net.soundvibe.domain.account.AccountRepository;
-import net.soundvibe.domain.transfer.MoneyTransferRepository;
+import net.soundvibe.domain.transfer.*;
+import net.soundvibe.journal.*;
+import net.soundvibe.tcp.TransferGateway;
 import net.soundvibe.web.*;
 import org.slf4j.*;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static io.vertx.core.logging.LoggerFactory.LOGGER_DELEGATE_FACTORY_CLASS_NAME;
 import static io.vertx.micrometer.MicrometerMetricsOptions.DEFAULT_REGISTRY_NAME;
+import static net.soundvibe.web.HttpHeader.*;
 
 public class Application {
 
     private static final Logger log = LoggerFactory.getLogger(Application.class);
 
+    private static final int HTTP_INSTANCES = Integer.getInteger("http.instances", Runtime.getRuntime().availableProcessors());
+    private static final int TRANSFER_LANES = Integer.getInteger("transfer.lanes", Runtime.getRuntime().availableProcessors());
+    private static final int TRANSFER_BATCH_MAX = Integer.getInteger("transfer.batch.max", PartitionedAccountProcessor.DEFAULT_MAX_BATCH_SIZE);
+    private static final Set<String> HOT_ACCOUNT_IDS = Arrays.stream(System.getProperty("account.hot.ids", "").split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .collect(Collectors.toSet());
+    private static final int HOT_ACCOUNT_SHARDS = Integer.getInteger("account.hot.shards", Runtime.getRuntime().availableProcessors());
+    private static final long TRANSFER_STATUS_MAX_ENTRIES = Long.getLong("transfer.status.max.entries", MoneyTransferRepository.DEFAULT_MAX_ENTRIES);
+    private static final long TRANSFER_STATUS_TTL_SECONDS = Long.getLong("transfer.status.ttl.s", MoneyTransferRepository.DEFAULT_TTL.getSeconds());
+    private static final int TRANSFER_STATUS_OFF_HEAP_BYTES = Integer.getInteger("transfer.status.offheap.bytes", MoneyTransferRepository.DEFAULT_OFF_HEAP_BYTES);
+    private static final int TRANSFER_QUEUE_CAPACITY = Integer.getInteger("transfer.queue.capacity", 10_000);
+    private static final long TRANSFER_ADMISSION_TIMEOUT_MILLIS = Long.getLong("transfer.admission.timeout.ms", TransferAdmissionController.DEFAULT_TIMEOUT.toMillis());
+    private static final long TRANSFER_RETRY_AFTER_SECONDS = Long.getLong("transfer.retry.after.s", 1L);
+    private static final long TRANSFER_MAX_WAIT_MILLIS = Long.getLong("transfer.wait.max.ms", 30_000L);
+    private static final int TRANSFER_TCP_PORT = Integer.getInteger("transfer.tcp.port", -1);
+    private static final int TRANSFER_TCP_MAX_IN_FLIGHT = Integer.getInteger("transfer.tcp.max.in.flight", TransferGateway.DEFAULT_MAX_IN_FLIGHT);
+    private static final String EVENT_BUS = System.getProperty("event.bus", "routing");
+    private static final int EVENT_BUS_RING_SIZE = Integer.getInteger("event.bus.ring.size", RingBufferEventBus.DEFAULT_CAPACITY);
+    private static final WaitStrategy EVENT_BUS_WAIT_STRATEGY = WaitStrategy.valueOf(
+            System.getProperty("event.bus.wait", "park").toUpperCase(Locale.ROOT));
+    private static final Set<String> BLOCKING_SUBSCRIBERS = Arrays.stream(System.getProperty("subscribers.blocking", "").split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toSet());
+    private static final int BLOCKING_SUBSCRIBER_MAX_CONCURRENCY = Integer.getInteger("subscribers.blocking.max.concurrency", 1);
+    private static final int SUBSCRIBER_REPLAY_CAPACITY = Integer.getInteger("subscribers.replay.capacity", SubscribersSupervisor.DEFAULT_REPLAY_CAPACITY);
+    private static final int SUBSCRIBER_MAX_LAG = Integer.getInteger("subscribers.max.lag", SubscribersSupervisor.DEFAULT_MAX_LAG);
+    private static final int EVENT_STREAM_MAX_PENDING = Integer.getInteger("events.stream.max.pending", 1024);
+    private static final int TRANSFER_DEDUPE_ENTRIES = Integer.getInteger("transfer.dedupe.entries", TransferIdempotencyIndex.DEFAULT_ENTRIES_PER_GENERATION);
+    private static final long TRANSFER_DEDUPE_WINDOW_SECONDS = Long.getLong("transfer.dedupe.window.s", TransferIdempotencyIndex.DEFAULT_WINDOW.getSeconds());
+    private static final String JOURNAL_DIRECTORY = System.getProperty("journal.dir");
+    private static final int JOURNAL_SEGMENT_SIZE = Integer.getInteger("journal.segment.size", 64 * 1024 * 1024);
+    private static final long JOURNAL_COMMIT_DELAY_MILLIS = Long.getLong("journal.commit.delay.ms", 2L);
+    private static final int JOURNAL_COMMIT_BATCH = Integer.getInteger("journal.commit.batch", 1024);
+    private static final int JOURNAL_REPLAY_PARALLELISM = Integer.getInteger("journal.replay.parallelism", Runtime.getRuntime().availableProcessors());
+    private static final long SNAPSHOT_INTERVAL_SECONDS = Long.getLong("snapshot.interval.s", 300L);
+    private static final int SNAPSHOTS_RETAINED = Integer.getInteger("snapshot.retained", 2);
+
     public static void main(String[] args) throws InterruptedException {
         int port = args != null && args.length > 0 ? Integer.parseInt(args[0]) : 8181;
         startHttpServer(port);
     }
 
-    public static HttpServer startHttpServer(int port) throws InterruptedException {
-        var vertx = setupVertx();
-        var httpServer = vertx.createHttpServer(new HttpServerOptions()
-                .setPort(port)
-                .setSsl(false));
-
-        var accountRepository = new AccountRepository();
-        var moneyTransferRepository = new MoneyTransferRepository();
-        var eventBus = new RxEventBus();
-        var subscribers = List.<EventBusSubscriber>of(
-                new AccountProcessor(accountRepository),
-                moneyTransferRepository
-        );
-        var supervisor = new SubscribersSupervisor(subscribers);
-        supervisor.subscribe(eventBus);
-
-        var router = Router.router(vertx);
-        router.route().handler(BodyHandler.create());
-        router.get("/metrics").handler(PrometheusScrapingHandler.create());
-        router.get("/health").handler(HealthCheckHandler.create(supervisor));
-        router.get("/").handler(SwaggerHandler.create());
+    public static Vertx startHttpServer(int port) throws InterruptedException {
+        return startHttpServer(port, HTTP_INSTANCES);
+    }
 
-        var accountHandler = new AccountHandler(accountRepository);
-        router.post("/account")
-                .consumes("application/json")
-                .handler(accountHandler::open);
-        router.delete("/account/:accountId").handler(accountHandler::close);
+    public static Vertx startHttpServer(int port, int instances) throws InterruptedException {
+        var vertx = setupVertx();
 
-        var transferHandler = new TransferHandler(eventBus, moneyTransferRepository);
-        router.post("/transfer")
-                .consumes("application/json")
-                .handler(transferHandler::transfer);
-        router.get("/transfer/:transferId").handler(transferHandler::transferStatus);
+        var accountRepository = new AccountRepository(HOT_ACCOUNT_IDS, HOT_ACCOUNT_SHARDS);
+        var moneyTransferRepository = new MoneyTransferRepository(TRANSFER_STATUS_MAX_ENTRIES,
+                Duration.ofSeconds(TRANSFER_STATUS_TTL_SECONDS), TRANSFER_STATUS_OFF_HEAP_BYTES);
+        var admissionController = new TransferAdmissionController(TRANSFER_QUEUE_CAPACITY, Duration.ofMillis(TRANSFER_ADMISSION_TIMEOUT_MILLIS));
+        var completions = new TransferCompletions();
+        var idempotencyIndex = new TransferIdempotencyIndex(TRANSFER_DEDUPE_ENTRIES, Duration.ofSeconds(TRANSFER_DEDUPE_WINDOW_SECONDS));
+        var eventBus = createEventBus();
+        var subscribers = new ArrayList<EventBusSubscriber>(List.of(
+                new PartitionedAccountProcessor(accountRepository, TRANSFER_LANES, idempotencyIndex, TRANSFER_BATCH_MAX),
+                moneyTransferRepository,
+                admissionController,
+                completions
+        ));
+        Optional.ofNullable(JOURNAL_DIRECTORY)
+                .map(Path::of)
+                .map(directory -> openJournal(directory, accountRepository, moneyTransferRepository, idempotencyIndex))
+                .ifPresent(subscribers::add);
+        var supervisor = new SubscribersSupervisor(subscribers,
+                subscriber -> BLOCKING_SUBSCRIBERS.contains(subscriber.getClass().getSimpleName()),
+                BLOCKING_SUBSCRIBER_MAX_CONCURRENCY, SUBSCRIBER_REPLAY_CAPACITY, SUBSCRIBER_MAX_LAG);
+        supervisor.subscribe(eventBus);
 
-        router.route("/*").handler(StaticHandler.create());
-        router.route("/webjars/*").handler(StaticHandler.create("META-INF/resources/webjars"));
+        var batchTransferHandler = new BatchTransferHandler(eventBus, admissionController);
+        var accountHandler = new AccountHandler(accountRepository, eventBus);
+        var transferHandler = new TransferHandler(eventBus, moneyTransferRepository, admissionController, completions,
+                TRANSFER_RETRY_AFTER_SECONDS, TRANSFER_MAX_WAIT_MILLIS);
+        var eventStreamHandler = new EventStreamHandler(eventBus, EVENT_STREAM_MAX_PENDING);
+
+        Consumer<Router> routes = router -> {
+            router.post("/transfers/batch").handler(batchTransferHandler::transfer);
+            router.post("/transfer").handler(transferHandler::received);
+            router.route().handler(BodyHandler.create());
+            router.get("/metrics").handler(PrometheusScrapingHandler.create());
+            router.get("/health").handler(HealthCheckHandler.create(supervisor));
+            router.get("/").handler(SwaggerHandler.create());
+
+            router.post("/account")
+                    .consumes(JSON_CONTENT.value)
+                    .consumes(CBOR_CONTENT.value)
+                    .handler(accountHandler::open);
+            router.delete("/account/:accountId").handler(accountHandler::close);
+
+            router.post("/transfer")
+                    .consumes(JSON_CONTENT.value)
+                    .consumes(CBOR_CONTENT.value)
+                    .handler(transferHandler::transfer);
+            router.get("/transfer/:transferId").handler(transferHandler::transferStatus);
+            router.get("/events").handler(eventStreamHandler::stream);
+
+            router.route("/*").handler(StaticHandler.create());
+            router.route("/webjars/*").handler(StaticHandler.create("META-INF/resources/webjars"));
+        };
+
+        if (TRANSFER_TCP_PORT >= 0) {
+            startTcpServer(vertx, TRANSFER_TCP_PORT,
+                    new TransferGateway(eventBus, admissionController, completions, TRANSFER_TCP_MAX_IN_FLIGHT));
+        }
 
         var latch = new CountDownLatch(1);
-        httpServer.requestHandler(router).listen(handler -> {
+        vertx.deployVerticle(() -> new HttpVerticle(port, routes), new DeploymentOptions().setInstances(instances), handler -> {
             if (handler.succeeded()) {
-                log.info("Http Server started on port {}", handler.result().actualPort());
+                log.info("Http Server started on port {} with {} instances", port, instances);
                 latch.countDown();
             } else {
                 log.error("Unable to start Http Server", handler.cause());
@@ -80,7 +156,76 @@ public class Application {
         if (!(latch.await(30, TimeUnit.SECONDS))) {
             System.exit(-1);
         }
-        return httpServer;
+        return vertx;
+    }
+
+    private static EventBus createEventBus() {
+        switch (EVENT_BUS) {
+            case "rx":
+                return new RxEventBus();
+            case "routing":
+                return new RoutingEventBus();
+            case "ring":
+                return new RingBufferEventBus(EVENT_BUS_RING_SIZE, false, EVENT_BUS_WAIT_STRATEGY);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown event bus: %s", EVENT_BUS));
+        }
+    }
+
+    private static void startTcpServer(Vertx vertx, int port, TransferGateway gateway) throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        vertx.createNetServer(new NetServerOptions()
+                .setPort(port)
+                .setTcpNoDelay(true))
+                .connectHandler(gateway::handle)
+                .listen(handler -> {
+                    if (handler.succeeded()) {
+                        log.info("Transfer TCP Server started on port {}", handler.result().actualPort());
+                    } else {
+                        log.error("Unable to start Transfer TCP Server", handler.cause());
+                    }
+                    latch.countDown();
+                });
+        latch.await(30, TimeUnit.SECONDS);
+    }
+
+    private static EventJournal openJournal(Path directory, AccountRepository accountRepository,
+                                            MoneyTransferRepository moneyTransferRepository,
+                                            TransferIdempotencyIndex idempotencyIndex) {
+        var snapshots = new Snapshots(directory.resolve("snapshots"), SNAPSHOTS_RETAINED);
+        var snapshotSequence = Metrics.timer("journalReplay", "phase", "snapshot")
+                .record(() -> snapshots.restore(accountRepository, moneyTransferRepository));
+        moneyTransferRepository.forEach(idempotencyIndex::replay);
+        var started = System.nanoTime();
+        var lastSequence = JournalReader.replay(directory, snapshotSequence, JOURNAL_REPLAY_PARALLELISM, event -> {
+            accountRepository.replay(event);
+            moneyTransferRepository.replay(event);
+            idempotencyIndex.replay(event);
+        });
+        var elapsed = System.nanoTime() - started;
+        Metrics.timer("journalReplay", "phase", "tail").record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Replayed event journal from sequence {} up to {} in {} ms", snapshotSequence, lastSequence,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        var journal = new EventJournal(directory, JOURNAL_SEGMENT_SIZE, JOURNAL_COMMIT_DELAY_MILLIS, JOURNAL_COMMIT_BATCH);
+        if (SNAPSHOT_INTERVAL_SECONDS > 0) {
+            Flowable.interval(SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS, Schedulers.single())
+                    .subscribe(tick -> takeSnapshot(snapshots, journal, accountRepository, moneyTransferRepository));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            journal.close();
+            takeSnapshot(snapshots, journal, accountRepository, moneyTransferRepository);
+        }));
+        return journal;
+    }
+
+    private static void takeSnapshot(Snapshots snapshots, EventJournal journal, AccountRepository accountRepository,
+                                     MoneyTransferRepository moneyTransferRepository) {
+        try {
+            snapshots.take(journal.lastSequence(), accountRepository, moneyTransferRepository);
+        } catch (RuntimeException e) {
+            log.error("Unable to take snapshot", e);
+        }
     }
 
     private static Vertx setupVertx() {
@@ -11,6 +11,18 @@ public interface EventBus extends AutoCloseable {
     <E extends Event> void publish(E event);
     <C extends Command> void publish(C command);
 
+    default <C extends Command> void publishAll(Iterable<C> commands) {
+        for (var command : commands) {
+            publish(command);
+        }
+    }
+
+    default void publishEvents(Iterable<? extends Event> events) {
+        for (Event event : events) {
+            publish(event);
+        }
+    }
+
     Flowable<Event> observeEvents();
     Flowable<Command> observeCommands();
 
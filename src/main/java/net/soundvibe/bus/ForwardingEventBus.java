@@ -0,0 +1,62 @@
+package net.soundvibe.bus;
+
+import io.reactivex.Flowable;
+import net.soundvibe.domain.base.*;
+
+/**
+ * Event bus forwarding everything to another event bus, for views of a shared event bus that change how some of its
+ * streams are observed. Closing the view leaves the shared event bus open.
+ */
+abstract class ForwardingEventBus implements EventBus {
+
+    protected final EventBus delegate;
+
+    ForwardingEventBus(EventBus delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <E extends Event> void publish(E event) {
+        delegate.publish(event);
+    }
+
+    @Override
+    public <C extends Command> void publish(C command) {
+        delegate.publish(command);
+    }
+
+    @Override
+    public <C extends Command> void publishAll(Iterable<C> commands) {
+        delegate.publishAll(commands);
+    }
+
+    @Override
+    public void publishEvents(Iterable<? extends Event> events) {
+        delegate.publishEvents(events);
+    }
+
+    @Override
+    public Flowable<Event> observeEvents() {
+        return delegate.observeEvents();
+    }
+
+    @Override
+    public Flowable<Command> observeCommands() {
+        return delegate.observeCommands();
+    }
+
+    @Override
+    public <E extends Event> Flowable<E> observeEvents(Class<E> eventClass) {
+        return delegate.observeEvents(eventClass);
+    }
+
+    @Override
+    public <C extends Command> Flowable<C> observeCommands(Class<C> commandClass) {
+        return delegate.observeCommands(commandClass);
+    }
+
+    @Override
+    public void close() {
+        // the event bus is shared with other subscribers
+    }
+}
@@ -0,0 +1,134 @@
+package net.soundvibe.bus;
+
+import io.micrometer.core.instrument.Counter;
+import io.reactivex.*;
+import io.reactivex.disposables.Disposable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stream of messages observed by a supervised subscriber. The mailbox stays subscribed to the event bus while the
+ * subscriber's subscription comes and goes: messages arriving while nobody is subscribed are kept, up to
+ * {@code capacity} (dropping the oldest), and replayed to the next subscription before live messages. Messages already
+ * handed over to a subscription that then fails are not replayed.
+ * <p>
+ * Live messages are emitted without holding the mailbox lock, which only guards the kept messages while detached.
+ * The lag counts the kept messages and the ones emitted but not yet taken by the subscription.
+ */
+final class Mailbox<T> {
+
+    private final Deque<T> missed = new ArrayDeque<>();
+    private final int capacity;
+    private final Counter dropped;
+    private final Runnable onDetached;
+    private final Disposable upstream;
+    private volatile Attachment attachment;
+    private volatile boolean completed;
+
+    /**
+     * @param onDetached called when a subscription is cancelled or fails, not when the event bus completes
+     */
+    Mailbox(Flowable<T> messages, int capacity, Counter dropped, Runnable onDetached) {
+        this.capacity = capacity;
+        this.dropped = dropped;
+        this.onDetached = onDetached;
+        this.upstream = messages.subscribe(this::offer, this::complete, this::complete);
+    }
+
+    Flowable<T> flowable() {
+        return Flowable.defer(() -> {
+            var newAttachment = new Attachment();
+            return Flowable.<T>create(emitter -> attach(newAttachment, emitter), BackpressureStrategy.BUFFER)
+                    .doOnNext(message -> newAttachment.pending.decrementAndGet());
+        });
+    }
+
+    synchronized boolean isAttached() {
+        return attachment != null || completed;
+    }
+
+    int lag() {
+        var current = attachment;
+        long pending = current == null ? 0L : current.pending.get();
+        synchronized (this) {
+            return (int) Math.min(Integer.MAX_VALUE, missed.size() + pending);
+        }
+    }
+
+    void dispose() {
+        upstream.dispose();
+    }
+
+    private synchronized void attach(Attachment newAttachment, FlowableEmitter<T> newEmitter) {
+        newEmitter.setCancellable(() -> detach(newAttachment));
+        newAttachment.emitter = newEmitter.serialize();
+        T message;
+        while ((message = missed.poll()) != null) {
+            if (!newAttachment.offer(message)) {
+                missed.addFirst(message);
+                break;
+            }
+        }
+        if (newEmitter.isCancelled()) {
+            // cancelled while replaying, before detach could see this attachment
+            if (!completed) {
+                onDetached.run();
+            }
+            return;
+        }
+        // published last, so live messages are emitted only after the missed ones
+        attachment = newAttachment;
+        if (completed) {
+            newAttachment.emitter.onComplete();
+        }
+    }
+
+    private synchronized void detach(Attachment cancelled) {
+        if (attachment != cancelled) return;
+        attachment = null;
+        if (!completed) {
+            onDetached.run();
+        }
+    }
+
+    private void offer(T message) {
+        var current = attachment;
+        if (current != null && current.offer(message)) return;
+        synchronized (this) {
+            // attached meanwhile
+            current = attachment;
+            if (current != null && current.offer(message)) return;
+            if (missed.size() == capacity) {
+                missed.poll();
+                dropped.increment();
+            }
+            missed.add(message);
+        }
+    }
+
+    private void complete(Throwable e) {
+        complete();
+    }
+
+    private synchronized void complete() {
+        completed = true;
+        var current = attachment;
+        if (current != null) {
+            current.emitter.onComplete();
+        }
+    }
+
+    private final class Attachment {
+
+        private final AtomicLong pending = new AtomicLong();
+        private FlowableEmitter<T> emitter;
+
+        boolean offer(T message) {
+            if (emitter.isCancelled()) return false;
+            pending.incrementAndGet();
+            emitter.onNext(message);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package net.soundvibe.bus;
+
+import io.micrometer.core.instrument.*;
+import org.slf4j.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Preallocated ring of messages handed over from producers to a single consumer thread, in the style of the LMAX
+ * Disruptor. Producers claim a sequence (with an atomic increment, or a plain one when there is a single producer),
+ * store the message into its slot and mark the slot available for that lap of the ring; the consumer hands slots to
+ * the handler in sequence order and frees them. A full ring makes producers wait for the consumer.
+ * <p>
+ * Closing sets a flag bit in the cursor, so a sequence is either claimed before the ring closed, and then handled
+ * before the consumer stops, or not claimed at all, and then the message is dropped and counted in
+ * {@code eventBusRingDropped}.
+ */
+final class RingBuffer<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBuffer.class);
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final int YIELDS_BEFORE_PARKING = 100;
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Object[] entries;
+    private final AtomicIntegerArray laps;
+    private final int mask;
+    private final int lapShift;
+    private final boolean singleProducer;
+    private final WaitStrategy waitStrategy;
+    private final Consumer<T> handler;
+    private final Runnable onClose;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong(-1L);
+    private final Counter dropped;
+    private final Thread consumer;
+    private volatile boolean consumerParked;
+    private volatile long closedAt;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity       number of slots, a power of two
+     * @param singleProducer whether messages are only ever published from one thread
+     * @param handler        called on the consumer thread for every message in publishing order
+     * @param onClose        called on the consumer thread once all messages published before closing were handled
+     */
+    RingBuffer(String name, int capacity, boolean singleProducer, WaitStrategy waitStrategy,
+               Consumer<T> handler, Runnable onClose) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Ring capacity must be a power of two but was %d", capacity));
+        }
+        this.entries = new Object[capacity];
+        this.laps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            laps.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.lapShift = Integer.numberOfTrailingZeros(capacity);
+        this.singleProducer = singleProducer;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+        this.onClose = onClose;
+        this.dropped = Metrics.counter("eventBusRingDropped", Tags.of("ring", name));
+        Metrics.gauge("eventBusRingBacklog", Tags.of("ring", name), this, RingBuffer::backlog);
+        this.consumer = new Thread(this::consume, "event-bus-" + name);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * @return false when the ring is closed and the message was dropped
+     */
+    boolean publish(T message) {
+        long sequence = claim(1);
+        if (sequence < 0L) return false;
+        store(sequence, message);
+        wakeUpConsumer();
+        return true;
+    }
+
+    /**
+     * Publishes the messages in order into consecutive slots claimed at once.
+     *
+     * @return false when the ring is closed and the messages were dropped
+     */
+    boolean publishAll(Collection<? extends T> messages) {
+        int count = messages.size();
+        if (count > entries.length) {
+            boolean published = true;
+            for (var message : messages) {
+                published &= publish(message);
+            }
+            return published;
+        }
+        if (count == 0) return !closed;
+        long sequence = claim(count);
+        if (sequence < 0L) return false;
+        for (var message : messages) {
+            store(sequence++, message);
+        }
+        wakeUpConsumer();
+        return true;
+    }
+
+    long backlog() {
+        return (closed ? closedAt : cursor.get()) - consumed.get() - 1L;
+    }
+
+    void close() {
+        long sequence = cursor.getAndUpdate(current -> current | CLOSED);
+        if (sequence < 0L) return;
+        closedAt = sequence;
+        closed = true;
+        LockSupport.unpark(consumer);
+        if (Thread.currentThread() != consumer) {
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Claims {@code count} consecutive sequences and waits until the consumer has freed their slots.
+     *
+     * @return the first claimed sequence or -1 when the ring is closed
+     */
+    private long claim(int count) {
+        long first = singleProducer ? cursor.get() : cursor.getAndAdd(count);
+        // only closing competes with a single producer, so a failed compare-and-set means the ring is closed
+        if (first < 0L || singleProducer && !cursor.compareAndSet(first, first + count)) {
+            dropped.increment(count);
+            return -1L;
+        }
+        // claimed sequences must be stored even when closing, the consumer drains up to them before stopping
+        while (first + count - 1 - entries.length > consumed.get()) {
+            if (!consumer.isAlive()) {
+                dropped.increment(count);
+                return -1L;
+            }
+            LockSupport.parkNanos(1L);
+        }
+        return first;
+    }
+
+    private void store(long sequence, T message) {
+        int index = (int) sequence & mask;
+        entries[index] = message;
+        if (waitStrategy == WaitStrategy.PARK) {
+            laps.set(index, lap(sequence));
+        } else {
+            laps.lazySet(index, lap(sequence));
+        }
+    }
+
+    private void wakeUpConsumer() {
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume() {
+        long next = 0L;
+        int idleRounds = 0;
+        while (true) {
+            int index = (int) next & mask;
+            if (laps.get(index) == lap(next)) {
+                var message = (T) entries[index];
+                entries[index] = null;
+                consumed.lazySet(next++);
+                idleRounds = 0;
+                try {
+                    handler.accept(message);
+                } catch (RuntimeException e) {
+                    log.error("Event bus subscriber failed to handle {}", message, e);
+                }
+            } else if (closed && next == closedAt) {
+                break;
+            } else {
+                idle(index, next, idleRounds++);
+            }
+        }
+        onClose.run();
+    }
+
+    private void idle(int index, long next, int idleRounds) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                if (idleRounds < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                    break;
+                }
+                if (idleRounds < SPINS_BEFORE_PARKING + YIELDS_BEFORE_PARKING) {
+                    Thread.yield();
+                    break;
+                }
+                consumerParked = true;
+                if (laps.get(index) != lap(next) && !closed) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                consumerParked = false;
+                break;
+        }
+    }
+
+    private int lap(long sequence) {
+        return (int) (sequence >>> lapShift);
+    }
+}
@@ -0,0 +1,89 @@
+package net.soundvibe.bus;
+
+import io.reactivex.Flowable;
+import net.soundvibe.domain.base.*;
+
+import java.util.Collection;
+
+/**
+ * Event bus handing messages over through preallocated {@link RingBuffer}s, one for events and one for commands,
+ * instead of serializing concurrent publishers on the subscribers. Publishing only claims a slot; subscribers are
+ * called on the ring's consumer thread (routed by type as in {@link RoutingEventBus}), so they see messages shortly
+ * after {@code publish} returns rather than before.
+ */
+public class RingBufferEventBus implements EventBus {
+
+    public static final int DEFAULT_CAPACITY = 65_536;
+
+    private final TypedChannels<Event> events = new TypedChannels<>(false);
+    private final TypedChannels<Command> commands = new TypedChannels<>(false);
+    private final RingBuffer<Event> eventRing;
+    private final RingBuffer<Command> commandRing;
+
+    public RingBufferEventBus() {
+        this(DEFAULT_CAPACITY, false, WaitStrategy.PARK);
+    }
+
+    /**
+     * @param capacity       slots per ring, a power of two
+     * @param singleProducer whether events and commands are each only ever published from one thread
+     */
+    public RingBufferEventBus(int capacity, boolean singleProducer, WaitStrategy waitStrategy) {
+        this.eventRing = new RingBuffer<>("events", capacity, singleProducer, waitStrategy, events::publish, events::complete);
+        this.commandRing = new RingBuffer<>("commands", capacity, singleProducer, waitStrategy, commands::publish, commands::complete);
+    }
+
+    @Override
+    public <E extends Event> void publish(E event) {
+        eventRing.publish(event);
+    }
+
+    @Override
+    public <C extends Command> void publish(C command) {
+        commandRing.publish(command);
+    }
+
+    @Override
+    public void publishEvents(Iterable<? extends Event> events) {
+        if (events instanceof Collection) {
+            eventRing.publishAll((Collection<? extends Event>) events);
+        } else {
+            EventBus.super.publishEvents(events);
+        }
+    }
+
+    @Override
+    public <C extends Command> void publishAll(Iterable<C> commands) {
+        if (commands instanceof Collection) {
+            commandRing.publishAll((Collection<C>) commands);
+        } else {
+            EventBus.super.publishAll(commands);
+        }
+    }
+
+    @Override
+    public Flowable<Event> observeEvents() {
+        return events.all();
+    }
+
+    @Override
+    public Flowable<Command> observeCommands() {
+        return commands.all();
+    }
+
+    @Override
+    public <E extends Event> Flowable<E> observeEvents(Class<E> eventClass) {
+        return events.of(eventClass);
+    }
+
+    @Override
+    public <C extends Command> Flowable<C> observeCommands(Class<C> commandClass) {
+        return commands.of(commandClass);
+    }
+
+    @Override
+    public void close() {
+        eventRing.close();
+        commandRing.close();
+    }
+}
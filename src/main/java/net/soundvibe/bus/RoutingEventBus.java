@@ -0,0 +1,51 @@
+package net.soundvibe.bus;
+
+import io.reactivex.Flowable;
+import net.soundvibe.domain.base.*;
+
+/**
+ * Event bus routing messages on the publishing thread to a channel per observed type ({@link TypedChannels}), so a
+ * subscriber of {@link #observeEvents(Class)} only ever sees messages of its type and adding subscribers of other
+ * types adds no work per message. {@link #observeEvents()} and {@link #observeCommands()} still see every message.
+ */
+public class RoutingEventBus implements EventBus {
+
+    private final TypedChannels<Event> events = new TypedChannels<>(true);
+    private final TypedChannels<Command> commands = new TypedChannels<>(true);
+
+    @Override
+    public <E extends Event> void publish(E event) {
+        events.publish(event);
+    }
+
+    @Override
+    public <C extends Command> void publish(C command) {
+        commands.publish(command);
+    }
+
+    @Override
+    public Flowable<Event> observeEvents() {
+        return events.all();
+    }
+
+    @Override
+    public Flowable<Command> observeCommands() {
+        return commands.all();
+    }
+
+    @Override
+    public <E extends Event> Flowable<E> observeEvents(Class<E> eventClass) {
+        return events.of(eventClass);
+    }
+
+    @Override
+    public <C extends Command> Flowable<C> observeCommands(Class<C> commandClass) {
+        return commands.of(commandClass);
+    }
+
+    @Override
+    public void close() {
+        events.complete();
+        commands.complete();
+    }
+}
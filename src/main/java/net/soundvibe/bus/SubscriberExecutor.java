@@ -0,0 +1,167 @@
+package net.soundvibe.bus;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.*;
+import io.reactivex.schedulers.Schedulers;
+import net.soundvibe.domain.base.*;
+import org.slf4j.*;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a subscriber that may block (e.g. on I/O) off the threads publishing to the event bus: every stream it observes
+ * is moved onto a virtual thread per task executor (a cached pool of platform threads on JDKs without virtual
+ * threads). Messages of a stream are delivered one at a time and in order, and at most {@code maxConcurrency} streams
+ * of the subscriber are served at a time. At most {@code capacity} messages wait per stream; when a stream falls
+ * further behind, its oldest waiting message is dropped and counted in {@code subscriberMessagesDropped}. Messages
+ * waiting for the subscriber are exported as {@code subscriberPendingMessages} and running tasks as
+ * {@code subscriberActiveTasks}.
+ */
+final class SubscriberExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriberExecutor.class);
+
+    private final ExecutorService executor;
+    private final BoundedExecutor boundedExecutor;
+    private final Scheduler scheduler;
+    private final int capacity;
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+    private final Counter dropped;
+
+    SubscriberExecutor(String subscriber, int maxConcurrency, int capacity) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("Max concurrency must be positive but was %d", maxConcurrency));
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive but was %d", capacity));
+        }
+        this.capacity = capacity;
+        this.executor = newVirtualThreadPerTaskExecutor(subscriber);
+        this.boundedExecutor = new BoundedExecutor(executor, maxConcurrency);
+        this.scheduler = Schedulers.from(boundedExecutor);
+        var tags = Tags.of("subscriber", subscriber);
+        this.dropped = Metrics.counter("subscriberMessagesDropped", tags);
+        Metrics.gauge("subscriberPendingMessages", tags, pendingMessages);
+        Metrics.gauge("subscriberActiveTasks", tags, boundedExecutor.active);
+    }
+
+    /**
+     * Returns a view of the event bus whose streams deliver messages on this executor.
+     */
+    EventBus decorate(EventBus eventBus) {
+        return new ForwardingEventBus(eventBus) {
+            @Override
+            public Flowable<Event> observeEvents() {
+                return offload(delegate.observeEvents());
+            }
+
+            @Override
+            public Flowable<Command> observeCommands() {
+                return offload(delegate.observeCommands());
+            }
+
+            @Override
+            public <E extends Event> Flowable<E> observeEvents(Class<E> eventClass) {
+                return offload(delegate.observeEvents(eventClass));
+            }
+
+            @Override
+            public <C extends Command> Flowable<C> observeCommands(Class<C> commandClass) {
+                return offload(delegate.observeCommands(commandClass));
+            }
+        };
+    }
+
+    int pendingMessages() {
+        return pendingMessages.get();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Flowable<T> offload(Flowable<T> messages) {
+        return messages
+                .doOnNext(message -> pendingMessages.incrementAndGet())
+                .onBackpressureBuffer(capacity, this::dropOldest, BackpressureOverflowStrategy.DROP_OLDEST)
+                // requests one message at a time, so messages wait in the bounded buffer above only
+                .observeOn(scheduler, false, 1)
+                .doAfterNext(message -> pendingMessages.decrementAndGet());
+    }
+
+    private void dropOldest() {
+        pendingMessages.decrementAndGet();
+        dropped.increment();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String subscriber) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not supported by this JDK, running {} on platform threads", subscriber);
+            var threadIndex = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "subscriber-" + subscriber + "-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Queues tasks and hands them to the executor so that at most {@code maxConcurrency} run at a time.
+     */
+    static final class BoundedExecutor implements Executor {
+
+        private final Executor executor;
+        private final int maxConcurrency;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        final AtomicInteger active = new AtomicInteger();
+
+        BoundedExecutor(Executor executor, int maxConcurrency) {
+            this.executor = executor;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+            startWorker();
+        }
+
+        private void startWorker() {
+            while (!tasks.isEmpty()) {
+                int running = active.get();
+                if (running >= maxConcurrency) return;
+                if (active.compareAndSet(running, running + 1)) {
+                    try {
+                        executor.execute(this::work);
+                    } catch (RejectedExecutionException e) {
+                        log.debug("Subscriber executor is shut down, dropping {} tasks", tasks.size());
+                        tasks.clear();
+                        active.decrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void work() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.error("Subscriber task failed", e);
+                    }
+                }
+            } finally {
+                active.decrementAndGet();
+                startWorker();
+            }
+        }
+    }
+}
@@ -1,55 +1,229 @@
 package net.soundvibe.bus;
 
+import io.micrometer.core.instrument.*;
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import net.soundvibe.domain.base.*;
 import org.slf4j.*;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.*;
 
+/**
+ * Subscribes subscribers to the event bus through {@link Mailbox}es and resubscribes a subscriber as soon as one of
+ * its streams is cancelled or fails and is not subscribed again (e.g. by a {@code retry}) by the time a backoff
+ * delay has passed. The delay doubles with every resubscription that does not last longer than the max delay.
+ * Messages published meanwhile are replayed from the mailboxes, and a subscriber lags by the number of messages
+ * waiting for it there (and on its executor); the supervisor is healthy while every subscriber is subscribed and
+ * none lags by more than {@code maxLag}. Subscribers matching {@code blocking} observe the event bus on their own
+ * {@link SubscriberExecutor}, so they may block without stalling the publishers.
+ */
 public final class SubscribersSupervisor {
 
+    public static final int DEFAULT_REPLAY_CAPACITY = 65_536;
+    public static final int DEFAULT_MAX_LAG = 1_000;
+
     private static final Logger log = LoggerFactory.getLogger(SubscribersSupervisor.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 50L;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30L);
 
     private final List<EventBusSubscriber> subscribers;
-    private Map<EventBusSubscriber, Disposable> entries = Map.of();
-    private Disposable subscription;
+    private final Predicate<EventBusSubscriber> blocking;
+    private final int maxConcurrency;
+    private final int replayCapacity;
+    private final int maxLag;
+    private volatile List<Supervised> supervised = List.of();
 
     public SubscribersSupervisor(List<EventBusSubscriber> subscribers) {
+        this(subscribers, subscriber -> false, 1, DEFAULT_REPLAY_CAPACITY, DEFAULT_MAX_LAG);
+    }
+
+    /**
+     * @param blocking       subscribers that may block and are run on virtual threads
+     * @param maxConcurrency max number of streams of a blocking subscriber served at a time
+     * @param replayCapacity max number of messages kept per stream of a subscriber while it is not subscribed, and
+     *                       waiting per stream of a blocking subscriber while it is busy
+     * @param maxLag         max number of messages a subscriber may lag behind while healthy
+     */
+    public SubscribersSupervisor(List<EventBusSubscriber> subscribers, Predicate<EventBusSubscriber> blocking,
+                                 int maxConcurrency, int replayCapacity, int maxLag) {
+        if (replayCapacity < 1) {
+            throw new IllegalArgumentException(String.format("Replay capacity must be positive but was %d", replayCapacity));
+        }
         this.subscribers = subscribers;
+        this.blocking = blocking;
+        this.maxConcurrency = maxConcurrency;
+        this.replayCapacity = replayCapacity;
+        this.maxLag = maxLag;
         Runtime.getRuntime().addShutdownHook(new Thread(this::unSubscribe));
     }
 
-    public void subscribe(EventBus eventBus) {
+    public synchronized void subscribe(EventBus eventBus) {
         unSubscribe();
 
-        entries = subscribers.stream().collect(toMap(identity(), e -> e.subscribe(eventBus)));
-
-        subscription = Flowable.interval(1L, 1L, TimeUnit.MINUTES)
-                .flatMapIterable(i -> entries.entrySet())
-                .filter(entry -> entry.getValue().isDisposed())
-                .doOnNext(entry -> log.warn("Detected disposed subscriber. Resubscribing to event bus..."))
-                .subscribe(entry -> reSubscribe(entry, eventBus));
+        supervised = subscribers.stream()
+                .map(subscriber -> new Supervised(subscriber, eventBus))
+                .collect(toUnmodifiableList());
+        supervised.forEach(Supervised::subscribe);
         log.info("Subscribed to event bus successfully");
     }
 
-    public void unSubscribe() {
-        Optional.ofNullable(subscription).ifPresent(Disposable::dispose);
-        entries.values().forEach(Disposable::dispose);
+    public synchronized void unSubscribe() {
+        var stopped = supervised;
+        supervised = List.of();
+        stopped.forEach(Supervised::stop);
         log.info("UnSubscribed from event bus successfully");
     }
 
     public boolean isHealthy() {
-        return entries.values().stream().noneMatch(Disposable::isDisposed);
+        return supervised.stream().allMatch(entry -> entry.isAttached() && entry.lag() <= maxLag);
     }
 
-    private synchronized void reSubscribe(Map.Entry<EventBusSubscriber, Disposable> entry, EventBus eventBus) {
-        final Disposable disposable = entry.getKey().subscribe(eventBus);
-        entries.put(entry.getKey(), disposable);
-        log.info("Resubscribed to event bus successfully");
+    /**
+     * Number of messages every subscriber lags behind, by subscriber class name.
+     */
+    public Map<String, Integer> lags() {
+        return supervised.stream().collect(toMap(entry -> entry.name, Supervised::lag, Integer::sum, TreeMap::new));
     }
 
+    private final class Supervised {
+
+        private final EventBusSubscriber subscriber;
+        private final String name;
+        private final EventBus eventBus;
+        private final SubscriberExecutor executor;
+        private final Map<String, Mailbox<?>> mailboxes = new HashMap<>();
+        private final AtomicInteger backoffExponent = new AtomicInteger();
+        private final Counter resubscriptions;
+        private final Counter dropped;
+        private volatile long generation;
+        private volatile long subscribedAtMillis;
+        private volatile boolean stopped;
+        private Disposable disposable;
+
+        Supervised(EventBusSubscriber subscriber, EventBus eventBus) {
+            this.subscriber = subscriber;
+            this.name = subscriber.getClass().getSimpleName();
+            this.eventBus = eventBus;
+            this.executor = blocking.test(subscriber) ? new SubscriberExecutor(name, maxConcurrency, replayCapacity) : null;
+            var tags = Tags.of("subscriber", name);
+            this.resubscriptions = Metrics.counter("subscriberResubscriptions", tags);
+            this.dropped = Metrics.counter("subscriberMessagesDropped", tags);
+            Metrics.gauge("subscriberLag", tags, this, Supervised::lag);
+        }
+
+        synchronized void subscribe() {
+            if (stopped) return;
+            generation++;
+            subscribedAtMillis = System.currentTimeMillis();
+            var mailboxView = new MailboxView();
+            disposable = subscriber.subscribe(executor == null ? mailboxView : executor.decorate(mailboxView));
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            Optional.ofNullable(disposable).ifPresent(Disposable::dispose);
+            mailboxes.values().forEach(Mailbox::dispose);
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        boolean isAttached() {
+            return currentMailboxes().stream().allMatch(Mailbox::isAttached);
+        }
+
+        int lag() {
+            int lag = executor == null ? 0 : executor.pendingMessages();
+            for (var mailbox : currentMailboxes()) {
+                lag += mailbox.lag();
+            }
+            return lag;
+        }
+
+        private synchronized List<Mailbox<?>> currentMailboxes() {
+            return List.copyOf(mailboxes.values());
+        }
+
+        /**
+         * Called by a mailbox whose subscription was cancelled or failed, possibly while holding the mailbox lock.
+         */
+        private void detached() {
+            if (stopped) return;
+            if (System.currentTimeMillis() - subscribedAtMillis > MAX_BACKOFF_MILLIS) {
+                backoffExponent.set(0);
+            }
+            long delayMillis = Math.min(INITIAL_BACKOFF_MILLIS << Math.min(backoffExponent.get(), 20), MAX_BACKOFF_MILLIS);
+            long detachedGeneration = generation;
+            Schedulers.computation().scheduleDirect(() -> resubscribeIfDetached(detachedGeneration, delayMillis),
+                    delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void resubscribeIfDetached(long detachedGeneration, long delayMillis) {
+            if (stopped || generation != detachedGeneration ||
+                    mailboxes.values().stream().allMatch(Mailbox::isAttached)) return;
+            log.warn("Subscriber {} terminated, resubscribing to event bus after {} ms", name, delayMillis);
+            backoffExponent.incrementAndGet();
+            resubscriptions.increment();
+            // bump the generation first, so mailboxes detached by disposing do not trigger another resubscription
+            generation++;
+            disposable.dispose();
+            try {
+                subscribe();
+                log.info("Resubscribed {} to event bus successfully", name);
+            } catch (RuntimeException e) {
+                log.error("Failed to resubscribe {} to event bus", name, e);
+                detached();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized <T> Flowable<T> mailbox(String key, Flowable<T> messages) {
+            var mailbox = (Mailbox<T>) mailboxes.computeIfAbsent(key,
+                    k -> new Mailbox<>(messages, replayCapacity, dropped, this::detached));
+            return mailbox.flowable();
+        }
+
+        /**
+         * The event bus as seen by the subscriber: the n-th stream of a kind and type it observes is always served by
+         * the same mailbox, so a resubscribed subscriber gets the messages its previous subscription missed.
+         */
+        private final class MailboxView extends ForwardingEventBus {
+
+            private final Map<String, Integer> occurrences = new HashMap<>();
+
+            MailboxView() {
+                super(eventBus);
+            }
+
+            @Override
+            public Flowable<Event> observeEvents() {
+                return mailbox(key("events"), delegate.observeEvents());
+            }
+
+            @Override
+            public Flowable<Command> observeCommands() {
+                return mailbox(key("commands"), delegate.observeCommands());
+            }
+
+            @Override
+            public <E extends Event> Flowable<E> observeEvents(Class<E> eventClass) {
+                return mailbox(key("events:" + eventClass.getName()), delegate.observeEvents(eventClass));
+            }
+
+            @Override
+            public <C extends Command> Flowable<C> observeCommands(Class<C> commandClass) {
+                return mailbox(key("commands:" + commandClass.getName()), delegate.observeCommands(commandClass));
+            }
+
+            private String key(String stream) {
+                return stream + "#" + occurrences.merge(stream, 1, Integer::sum);
+            }
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package net.soundvibe.bus;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Channel per observed type plus one for all messages. Messages are routed to the channels of their type and its
+ * supertypes using a routing table per concrete class that is rebuilt when a new type is observed. Channels without
+ * subscribers are skipped.
+ */
+final class TypedChannels<T> {
+
+    private final boolean serialized;
+    private final FlowableProcessor<T> all;
+    private final Map<Class<?>, FlowableProcessor<T>> byType = new ConcurrentHashMap<>();
+    private volatile Map<Class<?>, FlowableProcessor<T>[]> routes = new ConcurrentHashMap<>();
+
+    /**
+     * @param serialized whether messages may be published from several threads at once
+     */
+    TypedChannels(boolean serialized) {
+        this.serialized = serialized;
+        this.all = channel();
+    }
+
+    void publish(T message) {
+        for (var channel : routes.computeIfAbsent(message.getClass(), this::route)) {
+            if (channel.hasSubscribers()) {
+                channel.onNext(message);
+            }
+        }
+        if (all.hasSubscribers()) {
+            all.onNext(message);
+        }
+    }
+
+    Flowable<T> all() {
+        return all;
+    }
+
+    @SuppressWarnings("unchecked")
+    <S extends T> Flowable<S> of(Class<S> type) {
+        var channel = byType.get(type);
+        if (channel == null) {
+            synchronized (this) {
+                channel = byType.get(type);
+                if (channel == null) {
+                    channel = channel();
+                    byType.put(type, channel);
+                    // routes computed concurrently into the old table are discarded with it
+                    routes = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return (Flowable<S>) channel;
+    }
+
+    void complete() {
+        byType.values().forEach(FlowableProcessor::onComplete);
+        all.onComplete();
+    }
+
+    private FlowableProcessor<T> channel() {
+        return serialized ? PublishProcessor.<T>create().toSerialized() : PublishProcessor.create();
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlowableProcessor<T>[] route(Class<?> messageClass) {
+        var channels = new ArrayList<FlowableProcessor<T>>();
+        byType.forEach((type, channel) -> {
+            if (type.isAssignableFrom(messageClass)) {
+                channels.add(channel);
+            }
+        });
+        return channels.toArray(new FlowableProcessor[0]);
+    }
+}
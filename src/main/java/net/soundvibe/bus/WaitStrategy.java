@@ -0,0 +1,14 @@
+package net.soundvibe.bus;
+
+/**
+ * How the consumer of a {@link RingBufferEventBus} ring waits for the next message.
+ */
+public enum WaitStrategy {
+
+    /** Spins on its core: lowest latency, but keeps a core busy per ring even when idle. */
+    BUSY_SPIN,
+    /** Yields to other threads between checks: low latency while cores are spare, degrades when they are not. */
+    YIELD,
+    /** Spins and yields briefly, then parks until a producer wakes it up: no CPU used while idle. */
+    PARK
+}
@@ -1,6 +1,8 @@
 package net.soundvibe.domain.account;
 
+import com.fasterxml.jackson.annotation.*;
 import io.micrometer.core.lang.Nullable;
+import net.soundvibe.domain.base.MinorUnits;
 import org.javamoney.moneta.Money;
 
 public class Account {
@@ -8,27 +10,70 @@ public class Account {
     public final String id;
     public final String firstName;
     public final String lastName;
-    public final Money balance;
     public final String transactionId;
+    private final long balanceInMinorUnits;
+    private final int currencyIndex;
+    private final long version;
 
+    @JsonCreator
     public Account(String id, String firstName, String lastName, Money balance, @Nullable String transactionId) {
+        this(id, firstName, lastName, balance, transactionId, 0L);
+    }
+
+    public Account(String id, String firstName, String lastName, Money balance, @Nullable String transactionId, long version) {
+        this(id, firstName, lastName, MinorUnits.of(balance), MinorUnits.currencyIndex(balance.getCurrency()), transactionId, version);
+    }
+
+    Account(String id, String firstName, String lastName, long balanceInMinorUnits, int currencyIndex, @Nullable String transactionId) {
+        this(id, firstName, lastName, balanceInMinorUnits, currencyIndex, transactionId, 0L);
+    }
+
+    Account(String id, String firstName, String lastName, long balanceInMinorUnits, int currencyIndex,
+                    @Nullable String transactionId, long version) {
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.balance = balance;
+        this.balanceInMinorUnits = balanceInMinorUnits;
+        this.currencyIndex = currencyIndex;
         this.transactionId = transactionId;
+        this.version = version;
+    }
+
+    @JsonProperty("balance")
+    public Money balance() {
+        return MinorUnits.toMoney(balanceInMinorUnits, currencyIndex);
     }
 
-    public Account debit(Money debitAmount, String transactionId) {
+    public long balanceInMinorUnits() {
+        return balanceInMinorUnits;
+    }
+
+    public int currencyIndex() {
+        return currencyIndex;
+    }
+
+    /**
+     * Incremented by every change of the balance, used by {@link AccountRepository#compareAndSet(Account, Account)}
+     * and to keep the latest state when replaying the journal.
+     */
+    public long version() {
+        return version;
+    }
+
+    public Account debit(long debitAmount, String transactionId) {
         return transactionId.equals(this.transactionId) ?
                 this :
-                new Account(id, firstName, lastName, balance.add(debitAmount), transactionId);
+                new Account(id, firstName, lastName, MinorUnits.add(balanceInMinorUnits, debitAmount), currencyIndex, transactionId, version + 1);
     }
 
-    public Account credit(Money creditAmount, String transactionId) {
+    public Account credit(long creditAmount, String transactionId) {
         return transactionId.equals(this.transactionId) ?
                 this :
-                new Account(id, firstName, lastName, balance.subtract(creditAmount), transactionId);
+                new Account(id, firstName, lastName, MinorUnits.subtract(balanceInMinorUnits, creditAmount), currencyIndex, transactionId, version + 1);
+    }
+
+    Account refund(long amount, @Nullable String transactionId) {
+        return new Account(id, firstName, lastName, MinorUnits.add(balanceInMinorUnits, amount), currencyIndex, transactionId, version + 1);
     }
 
     @Override
@@ -50,7 +95,7 @@ public class Account {
                 "id='" + id + '\'' +
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
-                ", balance=" + balance +
+                ", balance=" + balance() +
                 ", transactionId='" + transactionId + '\'' +
                 '}';
     }
@@ -1,72 +1,140 @@
 package net.soundvibe.domain.account;
 
 import io.micrometer.core.instrument.*;
-import io.reactivex.*;
-import io.reactivex.disposables.Disposable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.*;
 import io.reactivex.schedulers.Schedulers;
 import net.soundvibe.bus.*;
-import net.soundvibe.domain.account.event.*;
 import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
 import net.soundvibe.domain.transfer.command.TransferMoney;
-import net.soundvibe.domain.transfer.event.*;
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
 import org.slf4j.*;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes money transfers on a single thread in micro-batches: commands are queued as they arrive and drained once
+ * {@code maxBatchSize} of them are waiting or {@code maxBatchDelayMillis} after the first of them arrived, applied in
+ * order and their events published together, so subscribers of the events can amortize their work over the batch as
+ * well. The delay timer is only armed while a batch is waiting, an idle processor schedules nothing.
+ */
 public class AccountProcessor implements EventBusSubscriber {
 
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_MAX_BATCH_DELAY_MILLIS = 1L;
+
     private static final Logger log = LoggerFactory.getLogger(AccountProcessor.class);
 
     private final Counter errors = Metrics.counter("errors", Tags.of("processor", getClass().getSimpleName()));
-    private final Counter counter = Metrics.counter("transferEvents", Tags.of("processor", getClass().getSimpleName()));
-    private final AccountRepository accountRepository;
+    private final TransferEventLog eventLog = new TransferEventLog(getClass().getSimpleName());
+    private final Ledger ledger;
+    private final int maxBatchSize;
+    private final long maxBatchDelayMillis;
 
     public AccountProcessor(AccountRepository accountRepository) {
-        this.accountRepository = accountRepository;
+        this(accountRepository, new TransferIdempotencyIndex());
+    }
+
+    public AccountProcessor(AccountRepository accountRepository, TransferIdempotencyIndex idempotencyIndex) {
+        this(accountRepository, idempotencyIndex, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_DELAY_MILLIS);
+    }
+
+    public AccountProcessor(AccountRepository accountRepository, TransferIdempotencyIndex idempotencyIndex,
+                            int maxBatchSize, long maxBatchDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException(String.format("Max batch size must be positive but was %d", maxBatchSize));
+        }
+        this.ledger = new Ledger(accountRepository, idempotencyIndex);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMillis = maxBatchDelayMillis;
     }
 
     @Override
     public Disposable subscribe(EventBus eventBus) {
-        return eventBus.observeCommands(TransferMoney.class)
-                .observeOn(Schedulers.single())
-                .concatMap(this::transfer)
-                .doOnError(this::handleError)
-                .retry()
-                .doOnNext(eventBus::publish)
-                .subscribe(this::handleSuccess, this::handleError);
+        var batcher = new Batcher(eventBus, Schedulers.single().createWorker());
+        var subscription = eventBus.observeCommands(TransferMoney.class)
+                .subscribe(batcher::arrived, this::handleError);
+        return new CompositeDisposable(subscription, batcher.worker);
     }
 
-    private Flowable<? extends Event> transfer(TransferMoney transferMoney) {
-        var maybeFrom = accountRepository.findById(transferMoney.accountIdFrom);
-        if (maybeFrom.isEmpty()) {
-            return Flowable.just(new MoneyTransferFailed(transferMoney.id, String.format("Source account (%s) does not exist", transferMoney.accountIdFrom)));
-        }
-        var maybeTo = accountRepository.findById(transferMoney.accountIdTo);
-        if (maybeTo.isEmpty()) {
-            return Flowable.just(new MoneyTransferFailed(transferMoney.id, String.format("Destination account (%s) does not exist", transferMoney.accountIdTo)));
+    private List<Event> transferAll(Collection<TransferMoney> batch) {
+        var events = new ArrayList<Event>(batch.size() * 3);
+        for (var transferMoney : batch) {
+            events.addAll(transfer(transferMoney));
         }
+        return events;
+    }
 
-        var accountFrom = maybeFrom.get();
-        var accountTo = maybeTo.get();
-
-        var creditedAccount = accountFrom.credit(transferMoney.amountToTransfer, transferMoney.id);
-        if (creditedAccount.balance.isNegative()) {
-            return Flowable.just(new MoneyTransferFailed(transferMoney.id, String.format("Account (%s) has insufficient balance to perform money transfer",
-                    creditedAccount.id)));
+    private List<Event> transfer(TransferMoney transferMoney) {
+        try {
+            return ledger.transfer(transferMoney);
+        } catch (Exception e) {
+            handleError(e);
+            return List.of(MoneyTransferFailed.from(transferMoney, String.format("Transfer could not be processed: %s", e.getMessage())));
         }
-        var debitedAccount = accountTo.debit(transferMoney.amountToTransfer, transferMoney.id);
-        return Flowable.just(
-                new AccountCredited(transferMoney.amountToTransfer, accountRepository.save(creditedAccount)),
-                new AccountDebited(transferMoney.amountToTransfer, accountRepository.save(debitedAccount)),
-                MoneyTransferred.from(transferMoney)
-        );
     }
 
-    private void handleSuccess(Event event) {
-        log.info("Event was published successfully: {}", event);
-        counter.increment();
+    private void publish(List<Event> events, EventBus eventBus) {
+        try {
+            eventBus.publishEvents(events);
+            events.forEach(eventLog::published);
+        } catch (RuntimeException e) {
+            handleError(e);
+        }
     }
 
     private void handleError(Throwable e) {
         log.error("Got error during money transfer", e);
         errors.increment();
     }
+
+    /**
+     * Counts the queued commands: the first one of a batch arms the delay timer and the one filling a batch drains it
+     * right away. A drain takes at most one batch at a time and re-arms the timer when it leaves a partial one behind.
+     * Drains run on the single worker, so a stale timer at worst drains a partial batch early.
+     */
+    private final class Batcher {
+
+        private final EventBus eventBus;
+        private final Scheduler.Worker worker;
+        private final Queue<TransferMoney> queued = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        Batcher(EventBus eventBus, Scheduler.Worker worker) {
+            this.eventBus = eventBus;
+            this.worker = worker;
+        }
+
+        void arrived(TransferMoney transferMoney) {
+            queued.add(transferMoney);
+            int queuedSize = size.incrementAndGet();
+            if (queuedSize == maxBatchSize) {
+                worker.schedule(this::drain);
+            } else if (queuedSize == 1) {
+                worker.schedule(this::drain, maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                int batchSize = Math.min(size.get(), maxBatchSize);
+                if (batchSize == 0) return;
+                var batch = new ArrayList<TransferMoney>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(queued.poll());
+                }
+                publish(transferAll(batch), eventBus);
+                int left = size.addAndGet(-batchSize);
+                if (left < maxBatchSize) {
+                    if (left > 0) {
+                        worker.schedule(this::drain, maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+            }
+        }
+    }
 }
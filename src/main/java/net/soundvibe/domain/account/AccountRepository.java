@@ -1,28 +1,193 @@
 package net.soundvibe.domain.account;
 
+import io.micrometer.core.instrument.*;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static io.vavr.API.*;
+import static io.vavr.Predicates.instanceOf;
 
+/**
+ * Keeps the latest version of every account in its own atomic cell, so writers of different accounts never contend
+ * and writers of the same account update it optimistically with {@link #compareAndSet(Account, Account)}. A closed
+ * account's cell is emptied before it is removed, so a writer still holding the cell cannot bring the account back.
+ * <p>
+ * Accounts designated as hot (e.g. merchant settlement accounts receiving a large share of all transfers) are kept as
+ * {@link ShardedAccount}s instead, which are updated through {@link #hot(String)} rather than compare-and-set.
+ * <p>
+ * Replay keeps the account state with the highest version, so replaying events out of order per account (snapshots
+ * are taken while transfers are processed, hot accounts are updated concurrently) still ends with the latest state.
+ * Credits and debits journaled after the account was closed are skipped, so they cannot bring a closed account back.
+ */
 public class AccountRepository {
 
-    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicReference<Account>> accounts = new ConcurrentHashMap<>();
+    private final Map<String, ShardedAccount> hotAccounts = new ConcurrentHashMap<>();
+    private final Set<String> replayedClosedIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> hotAccountIds;
+    private final int shards;
+    private final Counter conflicts = Metrics.counter("accountUpdateConflicts");
+
+    public AccountRepository() {
+        this(Set.of(), 1);
+    }
+
+    /**
+     * @param hotAccountIds ids of accounts whose balance is split into {@code shards} shards
+     */
+    public AccountRepository(Set<String> hotAccountIds, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException(String.format("Shard count must be positive but was %d", shards));
+        }
+        this.hotAccountIds = Set.copyOf(hotAccountIds);
+        this.shards = shards;
+    }
+
+    public boolean isHot(String accountId) {
+        return !hotAccountIds.isEmpty() && accountId != null && hotAccountIds.contains(accountId);
+    }
 
     public Account open(Account initialAccount) {
-        return accounts.merge(initialAccount.id, initialAccount, (oldAccount, newAccount) -> {
-            throw new IllegalStateException(String.format("Account (%s) already exists", oldAccount.id));
+        if (isHot(initialAccount.id)) {
+            hotAccounts.merge(initialAccount.id, new ShardedAccount(initialAccount, shards), (oldAccount, newAccount) -> {
+                throw new IllegalStateException(String.format("Account (%s) already exists", initialAccount.id));
+            });
+            return initialAccount;
+        }
+        accounts.merge(initialAccount.id, new AtomicReference<>(initialAccount), (oldCell, newCell) -> {
+            if (oldCell.get() != null) {
+                throw new IllegalStateException(String.format("Account (%s) already exists", initialAccount.id));
+            }
+            return newCell;
         });
+        return initialAccount;
     }
 
     public Account close(String accountId) {
-        return accounts.remove(accountId);
+        if (isHot(accountId)) {
+            var hotAccount = hotAccounts.remove(accountId);
+            return hotAccount == null ? null : hotAccount.close();
+        }
+        var cell = accounts.get(accountId);
+        if (cell == null) return null;
+        var closedAccount = cell.getAndSet(null);
+        accounts.remove(accountId, cell);
+        return closedAccount;
     }
 
     public Optional<Account> findById(String accountId) {
-        return Optional.ofNullable(accounts.get(accountId));
+        if (isHot(accountId)) {
+            return Optional.ofNullable(hotAccounts.get(accountId)).map(ShardedAccount::snapshot);
+        }
+        var cell = accounts.get(accountId);
+        return cell == null ? Optional.empty() : Optional.ofNullable(cell.get());
+    }
+
+    /**
+     * Replaces the account with {@code updated} only if it is still at the version of {@code expected}.
+     *
+     * @return false when the account was changed or closed since {@code expected} was read
+     * @throws IllegalArgumentException when the account is hot
+     */
+    public boolean compareAndSet(Account expected, Account updated) {
+        if (isHot(expected.id)) {
+            throw new IllegalArgumentException(String.format("Account (%s) is sharded and cannot be compared and set", expected.id));
+        }
+        var cell = accounts.get(expected.id);
+        var current = cell == null ? null : cell.get();
+        if (current != null && current.version() == expected.version() && cell.compareAndSet(current, updated)) {
+            return true;
+        }
+        conflicts.increment();
+        return false;
     }
 
+    /**
+     * Returns the hot account or null when the account is not hot or does not exist.
+     */
+    ShardedAccount hot(String accountId) {
+        return isHot(accountId) ? hotAccounts.get(accountId) : null;
+    }
+
+    public void forEach(Consumer<Account> consumer) {
+        hotAccounts.values().forEach(hotAccount -> consumer.accept(hotAccount.snapshot()));
+        accounts.values().forEach(cell -> {
+            var account = cell.get();
+            if (account != null) {
+                consumer.accept(account);
+            }
+        });
+    }
+
+    public void clear() {
+        accounts.clear();
+        hotAccounts.clear();
+        replayedClosedIds.clear();
+    }
+
+    public void replay(Event event) {
+        Match(event).option(
+                Case($(instanceOf(AccountOpened.class)),
+                        accountOpened -> replayOpened(accountOpened.account)),
+                Case($(instanceOf(AccountClosed.class)),
+                        accountClosed -> replayClosed(accountClosed.account.id)),
+                Case($(instanceOf(AccountCredited.class)),
+                        accountCredited -> replayUpdated(accountCredited.account)),
+                Case($(instanceOf(AccountDebited.class)),
+                        accountDebited -> replayUpdated(accountDebited.account))
+        );
+    }
+
+    private boolean replayOpened(Account account) {
+        replayedClosedIds.remove(account.id);
+        return save(account, false);
+    }
+
+    private Account replayClosed(String accountId) {
+        replayedClosedIds.add(accountId);
+        return close(accountId);
+    }
+
+    private boolean replayUpdated(Account account) {
+        return !replayedClosedIds.contains(account.id) && save(account, true);
+    }
+
+    /**
+     * Unconditionally stores the account, for replaying journaled state only.
+     */
     Account save(Account account) {
-        accounts.put(account.id, account);
+        if (isHot(account.id)) {
+            hotAccounts.compute(account.id, (id, hotAccount) -> new ShardedAccount(account, shards));
+        } else {
+            accounts.computeIfAbsent(account.id, id -> new AtomicReference<>()).set(account);
+        }
         return account;
     }
+
+    /**
+     * Stores a replayed account unless a newer version is stored already. Accounts journaled before versions were
+     * added all have version 0, so among equal versions the later one wins if {@code replaceEqualVersion}.
+     */
+    private boolean save(Account account, boolean replaceEqualVersion) {
+        if (isHot(account.id)) {
+            var hotAccount = hotAccounts.putIfAbsent(account.id, new ShardedAccount(account, shards));
+            return hotAccount == null ||
+                    (replaceEqualVersion || account.version() > hotAccount.snapshot().version()) && hotAccount.replay(account);
+        }
+        var cell = accounts.computeIfAbsent(account.id, id -> new AtomicReference<>());
+        Account current;
+        do {
+            current = cell.get();
+            if (current != null && (account.version() < current.version() ||
+                    account.version() == current.version() && !replaceEqualVersion)) {
+                return false;
+            }
+        } while (!cell.compareAndSet(current, account));
+        return true;
+    }
 }
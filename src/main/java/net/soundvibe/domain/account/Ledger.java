@@ -0,0 +1,178 @@
+package net.soundvibe.domain.account;
+
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+
+import java.util.*;
+
+final class Ledger {
+
+    private final AccountRepository accountRepository;
+    private final TransferIdempotencyIndex idempotencyIndex;
+
+    Ledger(AccountRepository accountRepository, TransferIdempotencyIndex idempotencyIndex) {
+        this.accountRepository = accountRepository;
+        this.idempotencyIndex = idempotencyIndex;
+    }
+
+    List<Event> transfer(TransferMoney transferMoney) {
+        long dequeuedAt = TransferStage.QUEUE.record(transferMoney.publishedAtNanos());
+        var outcome = idempotencyIndex.find(transferMoney.id);
+        if (outcome != null) {
+            return List.of(outcome);
+        }
+        var events = apply(transferMoney);
+        idempotencyIndex.record(transferMoney.id, events.get(events.size() - 1));
+        TransferStage.APPLY.record(dequeuedAt);
+        return events;
+    }
+
+    private List<Event> apply(TransferMoney transferMoney) {
+        var maybeFrom = accountRepository.findById(transferMoney.accountIdFrom);
+        if (maybeFrom.isEmpty()) {
+            return List.of(MoneyTransferFailed.from(transferMoney, String.format("Source account (%s) does not exist", transferMoney.accountIdFrom)));
+        }
+        var maybeTo = accountRepository.findById(transferMoney.accountIdTo);
+        if (maybeTo.isEmpty()) {
+            return List.of(MoneyTransferFailed.from(transferMoney, String.format("Destination account (%s) does not exist", transferMoney.accountIdTo)));
+        }
+
+        var accountFrom = maybeFrom.get();
+        var accountTo = maybeTo.get();
+
+        if (transferMoney.currencyIndex() != accountFrom.currencyIndex() || transferMoney.currencyIndex() != accountTo.currencyIndex()) {
+            return List.of(MoneyTransferFailed.from(transferMoney, String.format("Currency (%s) does not match accounts currency",
+                    transferMoney.amountToTransfer.getCurrency())));
+        }
+
+        if (accountFrom.id.equals(accountTo.id)) {
+            return transferToSelf(transferMoney, accountFrom);
+        }
+        return credit(transferMoney, accountFrom, accountTo);
+    }
+
+    /**
+     * Takes the amount from the source account, re-reading it and retrying for as long as other writers change it
+     * in between, and then moves it to the destination account.
+     */
+    private List<Event> credit(TransferMoney transferMoney, Account accountFrom, Account accountTo) {
+        if (accountRepository.isHot(accountFrom.id)) {
+            var hotAccountFrom = accountRepository.hot(accountFrom.id);
+            var creditedAccount = hotAccountFrom == null ? null : hotAccountFrom.withdraw(transferMoney.amountInMinorUnits(), transferMoney.id);
+            if (creditedAccount != null) {
+                return debit(transferMoney, accountFrom, creditedAccount, accountTo);
+            }
+            return accountRepository.hot(accountFrom.id) == null ?
+                    List.of(MoneyTransferFailed.from(transferMoney, String.format("Source account (%s) does not exist", accountFrom.id))) :
+                    insufficientBalance(transferMoney, accountFrom);
+        }
+        while (true) {
+            var creditedAccount = accountFrom.credit(transferMoney.amountInMinorUnits(), transferMoney.id);
+            if (creditedAccount.balanceInMinorUnits() < 0) {
+                return insufficientBalance(transferMoney, creditedAccount);
+            }
+            if (accountRepository.compareAndSet(accountFrom, creditedAccount)) {
+                return debit(transferMoney, accountFrom, creditedAccount, accountTo);
+            }
+            var maybeFrom = accountRepository.findById(accountFrom.id);
+            if (maybeFrom.isEmpty()) {
+                return List.of(MoneyTransferFailed.from(transferMoney, String.format("Source account (%s) does not exist", accountFrom.id)));
+            }
+            accountFrom = maybeFrom.get();
+        }
+    }
+
+    /**
+     * Adds the amount to the destination account. When that is impossible, the amount is given back to the source
+     * account (unless it was closed meanwhile), so money is neither created nor lost even though the two accounts are
+     * not updated atomically.
+     */
+    private List<Event> debit(TransferMoney transferMoney, Account accountFrom, Account creditedAccount, Account accountTo) {
+        var amount = transferMoney.amountInMinorUnits();
+        var hotAccountTo = accountRepository.hot(accountTo.id);
+        if (hotAccountTo == null && accountRepository.isHot(accountTo.id)) {
+            // closed since it was looked up
+            return refund(transferMoney, accountFrom, creditedAccount, MoneyTransferFailed.from(transferMoney,
+                    String.format("Destination account (%s) does not exist", accountTo.id)));
+        }
+        while (true) {
+            final Account debitedAccount;
+            try {
+                debitedAccount = hotAccountTo != null ?
+                        hotAccountTo.deposit(amount, transferMoney.id) :
+                        accountTo.debit(amount, transferMoney.id);
+            } catch (ArithmeticException e) {
+                return refund(transferMoney, accountFrom, creditedAccount, MoneyTransferFailed.from(transferMoney,
+                        String.format("Account (%s) balance would overflow", accountTo.id)));
+            }
+            if (hotAccountTo != null ? debitedAccount != null : accountRepository.compareAndSet(accountTo, debitedAccount)) {
+                return List.of(
+                        new AccountCredited(transferMoney.amountToTransfer, creditedAccount),
+                        new AccountDebited(transferMoney.amountToTransfer, debitedAccount),
+                        MoneyTransferred.from(transferMoney)
+                );
+            }
+            var maybeTo = accountRepository.findById(accountTo.id);
+            if (hotAccountTo != null || maybeTo.isEmpty()) {
+                return refund(transferMoney, accountFrom, creditedAccount, MoneyTransferFailed.from(transferMoney,
+                        String.format("Destination account (%s) does not exist", accountTo.id)));
+            }
+            accountTo = maybeTo.get();
+        }
+    }
+
+    /**
+     * Gives the amount back to the source account. The charge and the refund are returned as events next to the
+     * failure: other transfers may have published snapshots of the source taken in between, and those must not be
+     * its latest state when the events are replayed.
+     */
+    private List<Event> refund(TransferMoney transferMoney, Account accountFrom, Account creditedAccount, MoneyTransferFailed failure) {
+        var refundedAccount = refund(transferMoney, accountFrom);
+        if (refundedAccount == null) {
+            return List.of(failure);
+        }
+        return List.of(
+                new AccountCredited(transferMoney.amountToTransfer, creditedAccount),
+                new AccountDebited(transferMoney.amountToTransfer, refundedAccount),
+                failure
+        );
+    }
+
+    private Account refund(TransferMoney transferMoney, Account accountFrom) {
+        var amount = transferMoney.amountInMinorUnits();
+        var hotAccountFrom = accountRepository.hot(accountFrom.id);
+        if (hotAccountFrom != null) {
+            return hotAccountFrom.deposit(amount, accountFrom.transactionId);
+        }
+        Optional<Account> maybeFrom;
+        while ((maybeFrom = accountRepository.findById(accountFrom.id)).isPresent()) {
+            var current = maybeFrom.get();
+            var transactionId = transferMoney.id.equals(current.transactionId) ? accountFrom.transactionId : current.transactionId;
+            var refundedAccount = current.refund(amount, transactionId);
+            if (accountRepository.compareAndSet(current, refundedAccount)) {
+                return refundedAccount;
+            }
+        }
+        return null;
+    }
+
+    private List<Event> transferToSelf(TransferMoney transferMoney, Account account) {
+        var creditedAccount = account.credit(transferMoney.amountInMinorUnits(), transferMoney.id);
+        if (creditedAccount.balanceInMinorUnits() < 0) {
+            return insufficientBalance(transferMoney, creditedAccount);
+        }
+        return List.of(
+                new AccountCredited(transferMoney.amountToTransfer, account),
+                new AccountDebited(transferMoney.amountToTransfer, account),
+                MoneyTransferred.from(transferMoney)
+        );
+    }
+
+    private static List<Event> insufficientBalance(TransferMoney transferMoney, Account creditedAccount) {
+        return List.of(MoneyTransferFailed.from(transferMoney, String.format("Account (%s) has insufficient balance to perform money transfer",
+                creditedAccount.id)));
+    }
+}
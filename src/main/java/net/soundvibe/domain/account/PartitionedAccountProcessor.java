@@ -0,0 +1,234 @@
+package net.soundvibe.domain.account;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.disposables.*;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import org.slf4j.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Processes money transfers on a fixed number of single threaded lanes. Every account is owned by exactly one lane
+ * (chosen by account id hash), so transfers between accounts of the same lane run there without any coordination.
+ * Transfers spanning two lanes are executed on the lower lane after the higher lane has been parked, which keeps
+ * both accounts single writer. Both lanes are queued up when the transfer is dispatched, so every lane runs the
+ * transfers of its accounts in the order they were published, and because a lane only ever waits for tasks queued
+ * before it, this cannot deadlock. Hot accounts (see {@link AccountRepository#isHot(String)}) are safe to update from
+ * any lane, so they are not owned by one: a transfer from or to a hot account runs on the lane of the other account
+ * without a hand-off.
+ * <p>
+ * Transfers dispatched to the same lane one after another while it is still busy are applied by a single lane task,
+ * up to {@code maxBatchSize} of them, and their events are published together. A cross-lane transfer closes the
+ * pending batches of both its lanes, so batching never reorders transfers.
+ */
+public class PartitionedAccountProcessor implements EventBusSubscriber {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedAccountProcessor.class);
+
+    private final Counter errors = Metrics.counter("errors", Tags.of("processor", getClass().getSimpleName()));
+    private final TransferEventLog eventLog = new TransferEventLog(getClass().getSimpleName());
+    private final Counter crossLaneTransfers = Metrics.counter("crossLaneTransfers", Tags.of("processor", getClass().getSimpleName()));
+    private final AccountRepository accountRepository;
+    private final Ledger ledger;
+    private final int laneCount;
+    private final int maxBatchSize;
+
+    public PartitionedAccountProcessor(AccountRepository accountRepository) {
+        this(accountRepository, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PartitionedAccountProcessor(AccountRepository accountRepository, int laneCount) {
+        this(accountRepository, laneCount, new TransferIdempotencyIndex());
+    }
+
+    public PartitionedAccountProcessor(AccountRepository accountRepository, int laneCount, TransferIdempotencyIndex idempotencyIndex) {
+        this(accountRepository, laneCount, idempotencyIndex, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public PartitionedAccountProcessor(AccountRepository accountRepository, int laneCount, TransferIdempotencyIndex idempotencyIndex,
+                                       int maxBatchSize) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException(String.format("Lane count must be positive but was %d", laneCount));
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException(String.format("Max batch size must be positive but was %d", maxBatchSize));
+        }
+        this.accountRepository = accountRepository;
+        this.ledger = new Ledger(accountRepository, idempotencyIndex);
+        this.laneCount = laneCount;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public Disposable subscribe(EventBus eventBus) {
+        var lanes = createLanes();
+        var batches = new Batch[laneCount];
+        var subscription = eventBus.observeCommands(TransferMoney.class)
+                .subscribe(transferMoney -> dispatch(transferMoney, lanes, batches, eventBus), this::handleError);
+        return new CompositeDisposable(subscription, Disposables.fromAction(() -> shutdown(lanes)));
+    }
+
+    int laneOf(String accountId) {
+        if (accountId == null) return 0;
+        int hash = accountId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+    }
+
+    /**
+     * Called for one command at a time, as the command stream is serialized, so the pending batches need no locking.
+     */
+    private void dispatch(TransferMoney transferMoney, ExecutorService[] lanes, Batch[] batches, EventBus eventBus) {
+        boolean hotFrom = accountRepository.isHot(transferMoney.accountIdFrom);
+        boolean hotTo = accountRepository.isHot(transferMoney.accountIdTo);
+        int laneFrom = hotFrom ? laneOf(hotTo ? transferMoney.id : transferMoney.accountIdTo) : laneOf(transferMoney.accountIdFrom);
+        int laneTo = hotTo ? laneFrom : laneOf(transferMoney.accountIdTo);
+        try {
+            if (laneFrom == laneTo) {
+                if (batches[laneFrom] == null || !batches[laneFrom].add(transferMoney)) {
+                    var batch = new Batch(eventBus);
+                    batch.add(transferMoney);
+                    lanes[laneFrom].execute(batch);
+                    batches[laneFrom] = batch;
+                }
+            } else {
+                crossLaneTransfers.increment();
+                batches[laneFrom] = null;
+                batches[laneTo] = null;
+                // park the higher lane right away, so transfers dispatched later cannot overtake this one there
+                var parked = new CountDownLatch(1);
+                var released = new CountDownLatch(1);
+                lanes[Math.max(laneFrom, laneTo)].execute(() -> park(parked, released));
+                try {
+                    lanes[Math.min(laneFrom, laneTo)].execute(() -> handOff(transferMoney, parked, released, eventBus));
+                } catch (RejectedExecutionException e) {
+                    released.countDown();
+                    throw e;
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            fail(transferMoney, e, eventBus);
+        }
+    }
+
+    private static void park(CountDownLatch parked, CountDownLatch released) {
+        parked.countDown();
+        try {
+            released.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handOff(TransferMoney transferMoney, CountDownLatch parked, CountDownLatch released, EventBus eventBus) {
+        try {
+            parked.await();
+            apply(transferMoney, eventBus);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(transferMoney, new IllegalStateException("Transfer lane was interrupted", e), eventBus);
+        } finally {
+            released.countDown();
+        }
+    }
+
+    private void apply(TransferMoney transferMoney, EventBus eventBus) {
+        publish(transfer(transferMoney), eventBus);
+    }
+
+    private List<Event> transfer(TransferMoney transferMoney) {
+        try {
+            return ledger.transfer(transferMoney);
+        } catch (Exception e) {
+            handleError(e);
+            return List.of(MoneyTransferFailed.from(transferMoney, String.format("Transfer could not be processed: %s", e.getMessage())));
+        }
+    }
+
+    private void publish(List<Event> events, EventBus eventBus) {
+        try {
+            eventBus.publishEvents(events);
+            events.forEach(eventLog::published);
+        } catch (RuntimeException e) {
+            handleError(e);
+        }
+    }
+
+    private void fail(TransferMoney transferMoney, Throwable e, EventBus eventBus) {
+        handleError(e);
+        eventBus.publish(MoneyTransferFailed.from(transferMoney, String.format("Transfer could not be processed: %s", e.getMessage())));
+    }
+
+    private ExecutorService[] createLanes() {
+        var lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(new LaneThreadFactory(i));
+        }
+        return lanes;
+    }
+
+    private void shutdown(ExecutorService[] lanes) {
+        for (var lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    private void handleError(Throwable e) {
+        log.error("Got error during money transfer", e);
+        errors.increment();
+    }
+
+    /**
+     * Same-lane transfers applied by one lane task. Transfers can be added until the task starts.
+     */
+    private final class Batch implements Runnable {
+
+        private final EventBus eventBus;
+        private final List<TransferMoney> transfers = new ArrayList<>();
+        private boolean started;
+
+        Batch(EventBus eventBus) {
+            this.eventBus = eventBus;
+        }
+
+        synchronized boolean add(TransferMoney transferMoney) {
+            if (started || transfers.size() == maxBatchSize) return false;
+            transfers.add(transferMoney);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                started = true;
+            }
+            var events = new ArrayList<Event>(transfers.size() * 3);
+            for (var transferMoney : transfers) {
+                events.addAll(transfer(transferMoney));
+            }
+            publish(events, eventBus);
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+
+        private final String name;
+
+        LaneThreadFactory(int lane) {
+            this.name = "transfer-lane-" + lane;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
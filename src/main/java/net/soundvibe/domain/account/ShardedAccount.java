@@ -0,0 +1,176 @@
+package net.soundvibe.domain.account;
+
+import io.micrometer.core.instrument.*;
+import net.soundvibe.domain.base.MinorUnits;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Balance of a hot account split into shards, so concurrent writers mostly update different cache lines. Deposits
+ * go to the writer thread's home shard. Withdrawals take from the home shard and, when it runs short, first move
+ * balance over from the other shards; these moves are rare, run one at a time and are hidden from readers by a
+ * sequence lock, so the sum of the shards never shows money in transit.
+ * <p>
+ * Every successful deposit or withdrawal increments the version after updating its shard and then reads the sum,
+ * so the snapshot with the highest version always includes all updates before it. This is what lets journal
+ * replay keep the latest snapshot even though snapshots are published out of order. Deposits and withdrawals
+ * register as writers, and closing waits for the registered ones to finish, so the closed snapshot includes every
+ * update that succeeded.
+ */
+final class ShardedAccount {
+
+    private static final int PADDING = 8;
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final Account account;
+    private final int shards;
+    private final AtomicLongArray balances;
+    private final AtomicLong version;
+    private final AtomicLong rebalanceSequence = new AtomicLong();
+    private final Object rebalanceLock = new Object();
+    private final Counter rebalances = Metrics.counter("hotAccountRebalances");
+    private final AtomicInteger writers = new AtomicInteger();
+
+    ShardedAccount(Account account, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException(String.format("Shard count must be positive but was %d", shards));
+        }
+        this.account = account;
+        this.shards = shards;
+        this.balances = new AtomicLongArray(shards * PADDING);
+        this.balances.set(0, account.balanceInMinorUnits());
+        this.version = new AtomicLong(account.version());
+    }
+
+    Account snapshot() {
+        return snapshot(version.get(), account.transactionId);
+    }
+
+    /**
+     * Adds the amount and returns the account after it, or null when the account was closed.
+     *
+     * @throws ArithmeticException when the balance would overflow
+     */
+    Account deposit(long amount, String transactionId) {
+        if (!enter()) return null;
+        try {
+            int shard = homeShard();
+            long balance;
+            do {
+                balance = balances.get(shard);
+            } while (!balances.compareAndSet(shard, balance, MinorUnits.add(balance, amount)));
+            long depositVersion = version.incrementAndGet();
+            var snapshot = snapshot(depositVersion, transactionId);
+            if (snapshot.balanceInMinorUnits() < 0) {
+                balances.addAndGet(shard, -amount);
+                throw new ArithmeticException(String.format("Account (%s) balance would overflow", account.id));
+            }
+            return snapshot;
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Takes the amount and returns the account after it, or null when the balance is insufficient or the account
+     * was closed.
+     */
+    Account withdraw(long amount, String transactionId) {
+        if (!enter()) return null;
+        try {
+            int shard = homeShard();
+            while (true) {
+                long balance = balances.get(shard);
+                if (balance < amount) {
+                    if (!rebalance(shard, amount)) return null;
+                } else if (balances.compareAndSet(shard, balance, balance - amount)) {
+                    return snapshot(version.incrementAndGet(), transactionId);
+                }
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Rejects further deposits and withdrawals and returns the account once the ones in progress have finished.
+     */
+    Account close() {
+        writers.getAndUpdate(count -> count | CLOSED);
+        while (writers.get() != CLOSED) {
+            Thread.yield();
+        }
+        return snapshot();
+    }
+
+    /**
+     * Replaces the balance with a replayed snapshot, unless an update with a higher version was applied already.
+     */
+    boolean replay(Account replayed) {
+        synchronized (rebalanceLock) {
+            if (replayed.version() < version.get()) return false;
+            rebalanceSequence.incrementAndGet();
+            for (int i = 0; i < shards; i++) {
+                balances.set(i * PADDING, i == 0 ? replayed.balanceInMinorUnits() : 0L);
+            }
+            version.set(replayed.version());
+            rebalanceSequence.incrementAndGet();
+            return true;
+        }
+    }
+
+    private boolean enter() {
+        while (true) {
+            int count = writers.get();
+            if (count < 0) return false;
+            if (writers.compareAndSet(count, count + 1)) return true;
+        }
+    }
+
+    private void exit() {
+        writers.decrementAndGet();
+    }
+
+    private boolean rebalance(int shard, long amount) {
+        synchronized (rebalanceLock) {
+            rebalances.increment();
+            rebalanceSequence.incrementAndGet();
+            try {
+                for (int i = 0; i < shards && balances.get(shard) < amount; i++) {
+                    int other = i * PADDING;
+                    if (other == shard) continue;
+                    long moved = balances.getAndSet(other, 0L);
+                    balances.addAndGet(shard, moved);
+                }
+                return balances.get(shard) >= amount;
+            } finally {
+                rebalanceSequence.incrementAndGet();
+            }
+        }
+    }
+
+    private Account snapshot(long snapshotVersion, String transactionId) {
+        return new Account(account.id, account.firstName, account.lastName, balance(), account.currencyIndex(),
+                transactionId, snapshotVersion);
+    }
+
+    private long balance() {
+        while (true) {
+            long sequence = rebalanceSequence.get();
+            if ((sequence & 1L) == 0L) {
+                long sum = 0L;
+                for (int i = 0; i < shards; i++) {
+                    sum += balances.get(i * PADDING);
+                }
+                if (rebalanceSequence.get() == sequence) {
+                    return sum;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int homeShard() {
+        return (int) (Thread.currentThread().getId() % shards) * PADDING;
+    }
+}
@@ -0,0 +1,100 @@
+package net.soundvibe.domain.account;
+
+import io.micrometer.core.instrument.*;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+import org.slf4j.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts and logs events published by the transfer pipeline. Every event is counted per type; logging is sampled:
+ * at INFO at most {@code maxPerSecond} events a second are written (the next written line tells how many were
+ * skipped), at DEBUG every event is. Lines are {@code key=value} pairs holding ids and amounts only, never account
+ * holder names or balances.
+ */
+final class TransferEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferEventLog.class);
+
+    static final int DEFAULT_MAX_PER_SECOND = Integer.getInteger("transfer.log.rate", 10);
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger;
+    private final int maxPerSecond;
+    private final LongSupplier nanoClock;
+    private final ClassValue<Counter> counters;
+    private final Counter sampledOut;
+    private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong skipped = new AtomicLong();
+
+    TransferEventLog(String processor) {
+        this(processor, DEFAULT_MAX_PER_SECOND, log, System::nanoTime);
+    }
+
+    TransferEventLog(String processor, int maxPerSecond, Logger logger, LongSupplier nanoClock) {
+        if (maxPerSecond < 0) {
+            throw new IllegalArgumentException(String.format("Max logged events per second must not be negative but was %d", maxPerSecond));
+        }
+        this.logger = logger;
+        this.maxPerSecond = maxPerSecond;
+        this.nanoClock = nanoClock;
+        this.counters = new ClassValue<>() {
+            @Override
+            protected Counter computeValue(Class<?> type) {
+                return Metrics.counter("transferEvents", Tags.of("processor", processor, "event", type.getSimpleName()));
+            }
+        };
+        this.sampledOut = Metrics.counter("transferEventLogsSkipped", Tags.of("processor", processor));
+    }
+
+    void published(Event event) {
+        counters.get(event.getClass()).increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Published {}", describe(event));
+        } else if (logger.isInfoEnabled()) {
+            if (tryAcquire()) {
+                long skippedEvents = skipped.getAndSet(0L);
+                logger.info("Published {} skipped={}", describe(event), skippedEvents);
+            } else {
+                skipped.incrementAndGet();
+                sampledOut.increment();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        long currentWindow = nanoClock.getAsLong() / SECOND_NANOS;
+        long lastWindow = window.get();
+        if (currentWindow != lastWindow && window.compareAndSet(lastWindow, currentWindow)) {
+            logged.set(0);
+        }
+        return logged.incrementAndGet() <= maxPerSecond;
+    }
+
+    static String describe(Event event) {
+        if (event instanceof MoneyTransferred) {
+            var transferred = (MoneyTransferred) event;
+            return String.format("event=%s transferId=%s from=%s to=%s amount=%s", event.getName(), transferred.transferId,
+                    transferred.accountIdFrom, transferred.accountIdTo, transferred.amount);
+        } else if (event instanceof MoneyTransferFailed) {
+            var failed = (MoneyTransferFailed) event;
+            return String.format("event=%s transferId=%s from=%s to=%s cause=\"%s\"", event.getName(), failed.transferId,
+                    failed.accountIdFrom, failed.accountIdTo, failed.cause);
+        } else if (event instanceof AccountCredited) {
+            var credited = (AccountCredited) event;
+            return String.format("event=%s transferId=%s account=%s amount=%s", event.getName(), credited.account.transactionId,
+                    credited.account.id, credited.amountCredited);
+        } else if (event instanceof AccountDebited) {
+            var debited = (AccountDebited) event;
+            return String.format("event=%s transferId=%s account=%s amount=%s", event.getName(), debited.account.transactionId,
+                    debited.account.id, debited.amountDebited);
+        }
+        return String.format("event=%s", event.getName());
+    }
+}
@@ -0,0 +1,35 @@
+package net.soundvibe.domain.account.event;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.base.Event;
+
+import java.util.Objects;
+
+public class AccountClosed implements Event {
+
+    public final Account account;
+
+    public AccountClosed(Account account) {
+        this.account = account;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AccountClosed)) return false;
+        final AccountClosed that = (AccountClosed) o;
+        return Objects.equals(account, that.account);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(account);
+    }
+
+    @Override
+    public String toString() {
+        return "AccountClosed{" +
+                "account=" + account +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package net.soundvibe.domain.base;
+
+import org.javamoney.moneta.Money;
+
+import javax.money.CurrencyUnit;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed point representation of monetary amounts: a {@code long} number of currency minor units (e.g. cents)
+ * plus an index of the currency in a process wide registry. Arithmetic fails with {@link ArithmeticException}
+ * instead of silently overflowing or rounding.
+ */
+public final class MinorUnits {
+
+    private MinorUnits() {}
+
+    private static final Map<CurrencyUnit, Integer> CURRENCY_INDEXES = new ConcurrentHashMap<>();
+    private static volatile CurrencyUnit[] currencies = new CurrencyUnit[0];
+
+    public static long of(Money money) {
+        return money.getNumberStripped()
+                .movePointRight(fractionDigits(money.getCurrency()))
+                .longValueExact();
+    }
+
+    public static Money toMoney(long minorUnits, int currencyIndex) {
+        var currency = currency(currencyIndex);
+        return Money.of(BigDecimal.valueOf(minorUnits, fractionDigits(currency)), currency);
+    }
+
+    public static int currencyIndex(CurrencyUnit currency) {
+        var index = CURRENCY_INDEXES.get(currency);
+        return index != null ? index : register(currency);
+    }
+
+    public static CurrencyUnit currency(int currencyIndex) {
+        return currencies[currencyIndex];
+    }
+
+    public static long add(long minorUnits, long amount) {
+        return Math.addExact(minorUnits, amount);
+    }
+
+    public static long subtract(long minorUnits, long amount) {
+        return Math.subtractExact(minorUnits, amount);
+    }
+
+    private static int fractionDigits(CurrencyUnit currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
+    private static synchronized int register(CurrencyUnit currency) {
+        var existing = CURRENCY_INDEXES.get(currency);
+        if (existing != null) return existing;
+        var registered = Arrays.copyOf(currencies, currencies.length + 1);
+        registered[currencies.length] = currency;
+        currencies = registered;
+        CURRENCY_INDEXES.put(currency, currencies.length - 1);
+        return currencies.length - 1;
+    }
+}
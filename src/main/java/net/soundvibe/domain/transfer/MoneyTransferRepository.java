@@ -1,37 +1,115 @@
 package net.soundvibe.domain.transfer;
 
+import com.github.benmanes.caffeine.cache.*;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.reactivex.disposables.Disposable;
 import net.soundvibe.bus.*;
 import net.soundvibe.domain.base.Event;
 import net.soundvibe.domain.transfer.event.*;
 
-import java.util.Map;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-
-import static io.vavr.API.*;
-import static io.vavr.Predicates.instanceOf;
+import java.util.function.Consumer;
 
+/**
+ * Keeps transfer results in a bounded on-heap cache. Results evicted by size or age are moved to an off-heap ring,
+ * which is still consulted by {@link #findById(String)} until they are overwritten by newer results.
+ */
 public class MoneyTransferRepository implements EventBusSubscriber {
 
-    private final Map<String, Event> events = new ConcurrentHashMap<>();
+    public static final long DEFAULT_MAX_ENTRIES = 1_000_000L;
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    public static final int DEFAULT_OFF_HEAP_BYTES = 64 * 1024 * 1024;
+
+    private final Cache<String, Event> events;
+    private final OffHeapEventStore evicted;
+    private final Counter hotHits = Metrics.counter("transferStatusLookups", Tags.of("tier", "hot"));
+    private final Counter coldHits = Metrics.counter("transferStatusLookups", Tags.of("tier", "cold"));
+    private final Counter misses = Metrics.counter("transferStatusLookups", Tags.of("tier", "none"));
+
+    public MoneyTransferRepository() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL, DEFAULT_OFF_HEAP_BYTES);
+    }
+
+    public MoneyTransferRepository(long maxEntries, Duration ttl, int offHeapBytes) {
+        this.evicted = new OffHeapEventStore(offHeapBytes);
+        this.events = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .writer(new CacheWriter<String, Event>() {
+                    @Override
+                    public void write(String transferId, Event event) {
+                    }
+
+                    @Override
+                    public void delete(String transferId, Event event, RemovalCause cause) {
+                        if (cause.wasEvicted()) {
+                            evicted.put(transferId, event);
+                        }
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, events, "transferStatus");
+        Metrics.gauge("transferStatusOffHeapSize", evicted, OffHeapEventStore::size);
+        Metrics.gauge("transferStatusOffHeapBytes", evicted, OffHeapEventStore::usedBytes);
+    }
 
     @Override
     public Disposable subscribe(EventBus eventBus) {
-        return eventBus.observeEvents()
-                .subscribe(this::updateStore);
+        return eventBus.observeEvents(TransferOutcome.class)
+                .subscribe(outcome -> store(outcome, true));
     }
 
     public Optional<Event> findById(String transferId) {
-        return Optional.ofNullable(events.get(transferId));
+        var event = events.getIfPresent(transferId);
+        if (event != null) {
+            hotHits.increment();
+            if (event instanceof TransferOutcome) {
+                ((TransferOutcome) event).read();
+            }
+            return Optional.of(event);
+        }
+        var evictedEvent = evicted.find(transferId);
+        (evictedEvent.isPresent() ? coldHits : misses).increment();
+        return evictedEvent;
+    }
+
+    public void forEach(Consumer<Event> consumer) {
+        evicted.forEach(consumer);
+        events.asMap().values().forEach(consumer);
+    }
+
+    public void clear() {
+        events.invalidateAll();
+        evicted.clear();
+    }
+
+    public void replay(Event event) {
+        updateStore(event, false);
+    }
+
+    void cleanUp() {
+        events.cleanUp();
+    }
+
+    void updateStore(Event event) {
+        updateStore(event, true);
+    }
+
+    private void updateStore(Event event, boolean timed) {
+        if (event instanceof TransferOutcome) {
+            store((TransferOutcome) event, timed);
+        }
     }
 
-    private void updateStore(Event event) {
-        Match(event).option(
-                Case($(instanceOf(MoneyTransferFailed.class)),
-                        moneyTransferFailed -> events.putIfAbsent(moneyTransferFailed.transferId, moneyTransferFailed)),
-                Case($(instanceOf(MoneyTransferred.class)),
-                        moneyTransferred -> events.putIfAbsent(moneyTransferred.transferId, moneyTransferred))
-        );
+    private boolean store(TransferOutcome outcome, boolean timed) {
+        if (events.asMap().putIfAbsent(outcome.transferId(), outcome) != null) return false;
+        if (timed) {
+            outcome.stored(TransferStage.STORE.record(outcome.createdAtNanos()));
+        }
+        return true;
     }
 }
@@ -0,0 +1,165 @@
+package net.soundvibe.domain.transfer;
+
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.TransferOutcome;
+import net.soundvibe.journal.EventCodec;
+
+import java.nio.*;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Fixed size ring of encoded transfer results kept in direct memory. New results overwrite the oldest ones once
+ * the ring is full. Results are found through an off-heap open addressing index of transfer id hash and ring
+ * offset; index slots pointing to overwritten records are reused, and a lookup probes a bounded window only, so
+ * under heavy collisions an entry may be forgotten before it is overwritten. Memory is allocated on first write.
+ */
+final class OffHeapEventStore {
+
+    private static final int MAX_EVENT_SIZE = 64 * 1024;
+    private static final int PROBE_WINDOW = 16;
+    private static final int SLOT_SIZE = Long.BYTES * 2;
+    private static final int AVERAGE_EVENT_SIZE = 64;
+
+    private final int capacity;
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_EVENT_SIZE);
+    private ByteBuffer ring;
+    private ByteBuffer index;
+    private int indexMask;
+    private long head;
+    private long tail;
+    private long size;
+
+    OffHeapEventStore(int capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized boolean put(String transferId, Event event) {
+        if (capacity <= 0) return false;
+        scratch.clear();
+        try {
+            EventCodec.encode(event, scratch);
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        scratch.flip();
+        int recordSize = Integer.BYTES + scratch.remaining();
+        if (recordSize > capacity) return false;
+        allocate();
+
+        int position = (int) (head % capacity);
+        if (capacity - position < recordSize) {
+            reserve(capacity - position);
+            if (capacity - position >= Integer.BYTES) {
+                ring.putInt(position, -1);
+            }
+            head += capacity - position;
+            position = 0;
+        }
+        reserve(recordSize);
+        ring.putInt(position, scratch.remaining());
+        ring.position(position + Integer.BYTES);
+        ring.put(scratch);
+        index(transferId, head);
+        head += recordSize;
+        size++;
+        return true;
+    }
+
+    synchronized Optional<Event> find(String transferId) {
+        if (ring == null) return Optional.empty();
+        long hash = TransferIdHash.of(transferId);
+        int slot = slotOf(hash);
+        for (int i = 0; i < PROBE_WINDOW; i++, slot = (slot + 1) & indexMask) {
+            long offset = index.getLong(slot * SLOT_SIZE + Long.BYTES);
+            if (offset >= tail && index.getLong(slot * SLOT_SIZE) == hash) {
+                var event = read(offset);
+                if (event instanceof TransferOutcome && transferId.equals(((TransferOutcome) event).transferId())) {
+                    return Optional.of(event);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    synchronized void forEach(Consumer<Event> consumer) {
+        for (long offset = tail; offset < head; ) {
+            int position = (int) (offset % capacity);
+            int length = capacity - position < Integer.BYTES ? -1 : ring.getInt(position);
+            if (length < 0) {
+                offset += capacity - position;
+                continue;
+            }
+            consumer.accept(read(offset));
+            offset += Integer.BYTES + length;
+        }
+    }
+
+    synchronized void clear() {
+        tail = head;
+        size = 0;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized long usedBytes() {
+        return head - tail;
+    }
+
+    private void allocate() {
+        if (ring != null) return;
+        ring = ByteBuffer.allocateDirect(capacity);
+        int slots = Integer.highestOneBit(Math.max(PROBE_WINDOW, capacity / AVERAGE_EVENT_SIZE));
+        index = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        indexMask = slots - 1;
+        for (int slot = 0; slot < slots; slot++) {
+            index.putLong(slot * SLOT_SIZE + Long.BYTES, -1L);
+        }
+    }
+
+    private void reserve(int bytes) {
+        while (head + bytes - tail > capacity) {
+            int position = (int) (tail % capacity);
+            int length = capacity - position < Integer.BYTES ? -1 : ring.getInt(position);
+            if (length < 0) {
+                tail += capacity - position;
+            } else {
+                tail += Integer.BYTES + length;
+                size--;
+            }
+        }
+    }
+
+    private void index(String transferId, long offset) {
+        long hash = TransferIdHash.of(transferId);
+        int slot = slotOf(hash);
+        int oldestSlot = slot;
+        long oldestOffset = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_WINDOW; i++, slot = (slot + 1) & indexMask) {
+            long slotOffset = index.getLong(slot * SLOT_SIZE + Long.BYTES);
+            if (slotOffset < tail) {
+                oldestSlot = slot;
+                break;
+            }
+            if (slotOffset < oldestOffset) {
+                oldestOffset = slotOffset;
+                oldestSlot = slot;
+            }
+        }
+        index.putLong(oldestSlot * SLOT_SIZE, hash);
+        index.putLong(oldestSlot * SLOT_SIZE + Long.BYTES, offset);
+    }
+
+    private Event read(long offset) {
+        int position = (int) (offset % capacity);
+        var record = ring.duplicate();
+        record.limit(position + Integer.BYTES + ring.getInt(position)).position(position + Integer.BYTES);
+        return EventCodec.decode(record);
+    }
+
+    private int slotOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & indexMask;
+    }
+}
@@ -0,0 +1,122 @@
+package net.soundvibe.domain.transfer;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.event.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounds the number of transfers accepted but not yet processed. A transfer is admitted before its command is
+ * published and leaves once its {@link MoneyTransferred} or {@link MoneyTransferFailed} outcome is published,
+ * so the command backlog of the processors can never grow beyond {@code capacity}. A transfer whose outcome is
+ * never published (e.g. its command was lost) leaves once it has been admitted for longer than {@code timeout};
+ * such transfers are only looked for when the capacity is reached and are counted in
+ * {@code transferAdmissionsExpired}.
+ */
+public class TransferAdmissionController implements EventBusSubscriber {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(1);
+
+    private final int capacity;
+    private final long timeoutNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Long> admitted = new ConcurrentHashMap<>();
+    private final AtomicLong nextExpiryNanos;
+    private final Counter rejections = Metrics.counter("transferAdmissionRejections");
+    private final Counter expirations = Metrics.counter("transferAdmissionsExpired");
+
+    public TransferAdmissionController(int capacity) {
+        this(capacity, DEFAULT_TIMEOUT);
+    }
+
+    public TransferAdmissionController(int capacity, Duration timeout) {
+        this(capacity, timeout, System::nanoTime);
+    }
+
+    TransferAdmissionController(int capacity, Duration timeout, LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive but was %d", capacity));
+        }
+        this.capacity = capacity;
+        this.timeoutNanos = timeout.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextExpiryNanos = new AtomicLong(nanoClock.getAsLong());
+        Metrics.gauge("transferQueueDepth", inFlight);
+    }
+
+    @Override
+    public Disposable subscribe(EventBus eventBus) {
+        return eventBus.observeEvents(TransferOutcome.class)
+                .subscribe(outcome -> release(outcome.transferId()));
+    }
+
+    public boolean tryAdmit(String transferId) {
+        if (!acquire() && (expire() == 0 || !acquire())) {
+            rejections.increment();
+            return false;
+        }
+        if (admitted.putIfAbsent(transferId, nanoClock.getAsLong()) != null) {
+            inFlight.decrementAndGet();
+        }
+        return true;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gives the slot of an admitted transfer back without waiting for its outcome, e.g. when its command could not
+     * be published.
+     */
+    public void abandon(String transferId) {
+        release(transferId);
+    }
+
+    private boolean acquire() {
+        if (inFlight.incrementAndGet() <= capacity) return true;
+        inFlight.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Releases transfers admitted longer than the timeout ago. Does nothing until the oldest transfer found by the
+     * previous call expires, so a full controller does not scan all admitted transfers on every attempt.
+     *
+     * @return number of released transfers
+     */
+    private int expire() {
+        long now = nanoClock.getAsLong();
+        long nextExpiry = nextExpiryNanos.get();
+        if (now - nextExpiry < 0L || !nextExpiryNanos.compareAndSet(nextExpiry, now + timeoutNanos)) return 0;
+        int expired = 0;
+        long oldest = now;
+        for (var entry : admitted.entrySet()) {
+            long admittedAt = entry.getValue();
+            if (now - admittedAt >= timeoutNanos) {
+                if (admitted.remove(entry.getKey(), admittedAt)) {
+                    inFlight.decrementAndGet();
+                    expired++;
+                }
+            } else if (admittedAt - oldest < 0L) {
+                oldest = admittedAt;
+            }
+        }
+        nextExpiryNanos.set(oldest + timeoutNanos);
+        expirations.increment(expired);
+        return expired;
+    }
+
+    private void release(String transferId) {
+        if (transferId != null && admitted.remove(transferId) != null) {
+            inFlight.decrementAndGet();
+        }
+    }
+}
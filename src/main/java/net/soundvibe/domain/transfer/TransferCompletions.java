@@ -0,0 +1,62 @@
+package net.soundvibe.domain.transfer;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Completes futures of awaited transfers as soon as their outcome is published. Only registered transfer ids are
+ * tracked, so an outcome costs a single map lookup. Every waiter gets its own future, so one of them giving up does
+ * not affect the others waiting for the same transfer.
+ */
+public class TransferCompletions implements EventBusSubscriber {
+
+    private final Map<String, List<CompletableFuture<Event>>> awaiting = new ConcurrentHashMap<>();
+
+    public TransferCompletions() {
+        Metrics.gaugeMapSize("transfersAwaited", Tags.empty(), awaiting);
+    }
+
+    @Override
+    public Disposable subscribe(EventBus eventBus) {
+        return eventBus.observeEvents(TransferOutcome.class)
+                .subscribe(outcome -> complete(outcome.transferId(), outcome));
+    }
+
+    /**
+     * Registers interest in the outcome of a transfer. Must be called before the transfer command is published.
+     */
+    public CompletableFuture<Event> await(String transferId) {
+        var completion = new CompletableFuture<Event>();
+        awaiting.compute(transferId, (id, waiters) -> {
+            var completions = waiters == null ? new ArrayList<CompletableFuture<Event>>(1) : waiters;
+            completions.add(completion);
+            return completions;
+        });
+        return completion;
+    }
+
+    /**
+     * Stops waiting for the outcome of a transfer, other waiters of the same transfer keep waiting.
+     */
+    public void cancel(String transferId, CompletableFuture<Event> completion) {
+        awaiting.computeIfPresent(transferId, (id, waiters) -> {
+            waiters.remove(completion);
+            return waiters.isEmpty() ? null : waiters;
+        });
+        completion.cancel(false);
+    }
+
+    private void complete(String transferId, Event event) {
+        if (transferId == null) return;
+        var completions = awaiting.remove(transferId);
+        if (completions != null) {
+            completions.forEach(completion -> completion.complete(event));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.soundvibe.domain.transfer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 64-bit FNV-1a hash of a transfer id, shared by the indexes which look results up by transfer id.
+ */
+final class TransferIdHash {
+
+    private TransferIdHash() {
+    }
+
+    static long of(String transferId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : transferId.getBytes(UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
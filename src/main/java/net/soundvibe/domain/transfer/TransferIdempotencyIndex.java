@@ -0,0 +1,146 @@
+package net.soundvibe.domain.transfer;
+
+import io.micrometer.core.instrument.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.TransferOutcome;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Remembers outcomes of processed transfers by transfer id. Ids are kept in two generations; the current one is
+ * retired once it holds {@code entriesPerGeneration} ids or gets older than {@code window}, and the one before it
+ * is dropped then, so memory is bounded while every id is remembered for at least one full generation. Each
+ * generation has a Bloom filter in front of its map, so the common lookup of a new id usually touches a few
+ * words of the filter only. Lookups and inserts never lock.
+ */
+public class TransferIdempotencyIndex {
+
+    public static final int DEFAULT_ENTRIES_PER_GENERATION = 1_000_000;
+    public static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+
+    private static final int HASHES = 4;
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final int entriesPerGeneration;
+    private final long windowNanos;
+    private final AtomicReference<Generations> generations;
+    private final Counter duplicates = Metrics.counter("duplicateTransfers");
+
+    public TransferIdempotencyIndex() {
+        this(DEFAULT_ENTRIES_PER_GENERATION, DEFAULT_WINDOW);
+    }
+
+    public TransferIdempotencyIndex(int entriesPerGeneration, Duration window) {
+        if (entriesPerGeneration < 1) {
+            throw new IllegalArgumentException(String.format("Entries per generation must be positive but was %d", entriesPerGeneration));
+        }
+        this.entriesPerGeneration = entriesPerGeneration;
+        this.windowNanos = window.toNanos();
+        this.generations = new AtomicReference<>(new Generations(newGeneration(), newGeneration()));
+        Metrics.gauge("idempotencyIndexSize", this, TransferIdempotencyIndex::size);
+    }
+
+    /**
+     * Returns the recorded outcome of the transfer or null when the transfer was not processed yet.
+     */
+    public Event find(String transferId) {
+        long hash = TransferIdHash.of(transferId);
+        var current = generations.get();
+        var outcome = current.current.find(transferId, hash);
+        if (outcome == null) {
+            outcome = current.previous.find(transferId, hash);
+        }
+        if (outcome != null) {
+            duplicates.increment();
+        }
+        return outcome;
+    }
+
+    public void record(String transferId, Event outcome) {
+        var current = generations.get();
+        if (current.current.isFull()) {
+            generations.compareAndSet(current, new Generations(newGeneration(), current.current));
+            current = generations.get();
+        }
+        current.current.record(transferId, TransferIdHash.of(transferId), outcome);
+    }
+
+    /**
+     * Records the outcome of a replayed transfer, so a transfer retried after a restart is not applied again.
+     */
+    public void replay(Event event) {
+        if (event instanceof TransferOutcome) {
+            record(((TransferOutcome) event).transferId(), event);
+        }
+    }
+
+    public long size() {
+        var current = generations.get();
+        return current.current.outcomes.size() + current.previous.outcomes.size();
+    }
+
+    private Generation newGeneration() {
+        return new Generation(entriesPerGeneration, System.nanoTime() + windowNanos);
+    }
+
+    private static final class Generations {
+
+        final Generation current;
+        final Generation previous;
+
+        Generations(Generation current, Generation previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+
+    private static final class Generation {
+
+        final Map<String, Event> outcomes = new ConcurrentHashMap<>();
+        final AtomicLongArray bits;
+        final int bitCount;
+        final int capacity;
+        final long expiresAtNanos;
+
+        Generation(int capacity, long expiresAtNanos) {
+            this.capacity = capacity;
+            this.expiresAtNanos = expiresAtNanos;
+            long bitCount = Math.min((long) capacity * BITS_PER_ENTRY, Integer.MAX_VALUE - Long.SIZE);
+            this.bitCount = (int) bitCount;
+            this.bits = new AtomicLongArray((this.bitCount + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        boolean isFull() {
+            return outcomes.size() >= capacity || System.nanoTime() - expiresAtNanos > 0;
+        }
+
+        Event find(String transferId, long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return null;
+                }
+            }
+            return outcomes.get(transferId);
+        }
+
+        void record(String transferId, long hash, Event outcome) {
+            outcomes.putIfAbsent(transferId, outcome);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                long word;
+                while (((word = bits.get(bit >>> 6)) & mask) == 0 && !bits.compareAndSet(bit >>> 6, word, word | mask)) {
+                    // retry until bit is set
+                }
+            }
+        }
+    }
+}
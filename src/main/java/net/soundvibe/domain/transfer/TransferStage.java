@@ -0,0 +1,44 @@
+package net.soundvibe.domain.transfer;
+
+import io.micrometer.core.instrument.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages a transfer goes through, each timed from the end of the previous one by a {@code transferStage} timer
+ * with a percentile histogram: received (HTTP request or TCP frame) → published → dequeued by a processor lane →
+ * applied → outcome stored → outcome first read. Timestamps are {@link System#nanoTime()} values carried on the
+ * transfer command and its outcome; zero means unknown and is not recorded.
+ */
+public enum TransferStage {
+
+    PUBLISH("publish"),
+    QUEUE("queue"),
+    APPLY("apply"),
+    STORE("store"),
+    READ("read");
+
+    private final Timer timer;
+
+    TransferStage(String stage) {
+        this.timer = Timer.builder("transferStage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000L))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Records the time elapsed since {@code startedAtNanos} and returns the current time, which is where the next
+     * stage starts.
+     */
+    public long record(long startedAtNanos) {
+        long now = System.nanoTime();
+        if (startedAtNanos != 0L) {
+            timer.record(now - startedAtNanos, TimeUnit.NANOSECONDS);
+        }
+        return now;
+    }
+}
@@ -1,6 +1,7 @@
 package net.soundvibe.domain.transfer.command;
 
-import net.soundvibe.domain.base.Command;
+import net.soundvibe.domain.base.*;
+import net.soundvibe.domain.transfer.TransferStage;
 import org.javamoney.moneta.Money;
 
 import java.util.UUID;
@@ -11,12 +12,46 @@ public class TransferMoney implements Command {
     public final String accountIdFrom;
     public final String accountIdTo;
     public final Money amountToTransfer;
+    private final long amountInMinorUnits;
+    private final int currencyIndex;
+    private long receivedAtNanos = System.nanoTime();
+    private long publishedAtNanos;
 
     public TransferMoney(String id, String accountIdFrom, String accountIdTo, Money amountToTransfer) {
         this.id = id == null ? UUID.randomUUID().toString() : id;
         this.accountIdFrom = accountIdFrom;
         this.accountIdTo = accountIdTo;
         this.amountToTransfer = amountToTransfer;
+        this.amountInMinorUnits = MinorUnits.of(amountToTransfer);
+        this.currencyIndex = MinorUnits.currencyIndex(amountToTransfer.getCurrency());
+    }
+
+    public long amountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+
+    public int currencyIndex() {
+        return currencyIndex;
+    }
+
+    /**
+     * Moves the start of the {@link TransferStage#PUBLISH} stage to before the command was decoded, e.g. to when
+     * its HTTP request was received.
+     */
+    public TransferMoney receivedAt(long nanos) {
+        this.receivedAtNanos = nanos;
+        return this;
+    }
+
+    /**
+     * Must be called right before the command is published to the event bus.
+     */
+    public void published() {
+        this.publishedAtNanos = TransferStage.PUBLISH.record(receivedAtNanos);
+    }
+
+    public long publishedAtNanos() {
+        return publishedAtNanos;
     }
 
     @Override
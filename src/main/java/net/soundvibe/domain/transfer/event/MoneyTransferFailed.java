@@ -1,17 +1,39 @@
 package net.soundvibe.domain.transfer.event;
 
-import net.soundvibe.domain.base.Event;
+import com.fasterxml.jackson.annotation.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
 
 import java.util.Objects;
 
-public class MoneyTransferFailed implements Event {
+public class MoneyTransferFailed extends TransferOutcome {
 
     public final String transferId;
     public final String cause;
+    // left out when unknown, so failures are written as before the account ids were added
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final String accountIdFrom;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final String accountIdTo;
 
     public MoneyTransferFailed(String transferId, String cause) {
+        this(transferId, cause, null, null);
+    }
+
+    @JsonCreator
+    public MoneyTransferFailed(String transferId, String cause, String accountIdFrom, String accountIdTo) {
         this.transferId = transferId;
         this.cause = cause;
+        this.accountIdFrom = accountIdFrom;
+        this.accountIdTo = accountIdTo;
+    }
+
+    public static MoneyTransferFailed from(TransferMoney transferMoney, String cause) {
+        return new MoneyTransferFailed(transferMoney.id, cause, transferMoney.accountIdFrom, transferMoney.accountIdTo);
+    }
+
+    @Override
+    public String transferId() {
+        return transferId;
     }
 
     @Override
@@ -32,6 +54,8 @@ public class MoneyTransferFailed implements Event {
         return "MoneyTransferFailed{" +
                 "transferId='" + transferId + '\'' +
                 ", cause='" + cause + '\'' +
+                ", accountIdFrom='" + accountIdFrom + '\'' +
+                ", accountIdTo='" + accountIdTo + '\'' +
                 '}';
     }
 }
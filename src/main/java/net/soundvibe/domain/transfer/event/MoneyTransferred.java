@@ -1,12 +1,11 @@
 package net.soundvibe.domain.transfer.event;
 
-import net.soundvibe.domain.base.Event;
 import net.soundvibe.domain.transfer.command.TransferMoney;
 import org.javamoney.moneta.Money;
 
 import java.util.Objects;
 
-public class MoneyTransferred implements Event {
+public class MoneyTransferred extends TransferOutcome {
 
     public final String transferId;
     public final Money amount;
@@ -25,6 +24,11 @@ public class MoneyTransferred implements Event {
                 transferMoney.accountIdFrom, transferMoney.accountIdTo);
     }
 
+    @Override
+    public String transferId() {
+        return transferId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
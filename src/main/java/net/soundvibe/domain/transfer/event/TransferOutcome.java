@@ -0,0 +1,35 @@
+package net.soundvibe.domain.transfer.event;
+
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferStage;
+
+/**
+ * Outcome of a transfer, carrying the timestamps of the last {@link TransferStage}s: when it was created (the
+ * transfer was applied) and when it was stored, until it is read for the first time.
+ */
+public abstract class TransferOutcome implements Event {
+
+    private final long createdAtNanos = System.nanoTime();
+    private volatile long storedAtNanos;
+
+    public abstract String transferId();
+
+    public long createdAtNanos() {
+        return createdAtNanos;
+    }
+
+    public void stored(long nanos) {
+        this.storedAtNanos = nanos;
+    }
+
+    /**
+     * Records the {@link TransferStage#READ} stage if this is the first read since the outcome was stored.
+     */
+    public void read() {
+        long storedAt = storedAtNanos;
+        if (storedAt != 0L) {
+            storedAtNanos = 0L;
+            TransferStage.READ.record(storedAt);
+        }
+    }
+}
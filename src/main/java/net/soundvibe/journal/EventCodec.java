@@ -0,0 +1,165 @@
+package net.soundvibe.journal;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+
+import javax.money.Monetary;
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact binary encoding of domain events and transfer commands: a type byte followed by the fields. Strings are written as
+ * a signed short byte length (-1 for null) and UTF-8 bytes, money as currency code and long minor units, accounts end with
+ * their long version.
+ */
+public final class EventCodec {
+
+    private EventCodec() {}
+
+    private static final byte ACCOUNT_OPENED = 1;
+    private static final byte ACCOUNT_CLOSED = 2;
+    private static final byte ACCOUNT_CREDITED = 3;
+    private static final byte ACCOUNT_DEBITED = 4;
+    private static final byte MONEY_TRANSFERRED = 5;
+    private static final byte MONEY_TRANSFER_FAILED = 6;
+    private static final byte MONEY_TRANSFER_FAILED_WITH_ACCOUNTS = 7;
+    private static final byte TRANSFER_MONEY = 8;
+
+    public static boolean supports(Event event) {
+        return event instanceof AccountOpened || event instanceof AccountClosed ||
+                event instanceof AccountCredited || event instanceof AccountDebited ||
+                event instanceof MoneyTransferred || event instanceof MoneyTransferFailed;
+    }
+
+    public static void encode(Event event, ByteBuffer buffer) {
+        if (event instanceof AccountCredited) {
+            var accountCredited = (AccountCredited) event;
+            buffer.put(ACCOUNT_CREDITED);
+            writeMoney(accountCredited.amountCredited, buffer);
+            writeAccount(accountCredited.account, buffer);
+        } else if (event instanceof AccountDebited) {
+            var accountDebited = (AccountDebited) event;
+            buffer.put(ACCOUNT_DEBITED);
+            writeMoney(accountDebited.amountDebited, buffer);
+            writeAccount(accountDebited.account, buffer);
+        } else if (event instanceof MoneyTransferred) {
+            var moneyTransferred = (MoneyTransferred) event;
+            buffer.put(MONEY_TRANSFERRED);
+            writeString(moneyTransferred.transferId, buffer);
+            writeMoney(moneyTransferred.amount, buffer);
+            writeString(moneyTransferred.accountIdFrom, buffer);
+            writeString(moneyTransferred.accountIdTo, buffer);
+        } else if (event instanceof MoneyTransferFailed) {
+            var moneyTransferFailed = (MoneyTransferFailed) event;
+            buffer.put(MONEY_TRANSFER_FAILED_WITH_ACCOUNTS);
+            writeString(moneyTransferFailed.transferId, buffer);
+            writeString(moneyTransferFailed.cause, buffer);
+            writeString(moneyTransferFailed.accountIdFrom, buffer);
+            writeString(moneyTransferFailed.accountIdTo, buffer);
+        } else if (event instanceof AccountOpened) {
+            buffer.put(ACCOUNT_OPENED);
+            writeAccount(((AccountOpened) event).account, buffer);
+        } else if (event instanceof AccountClosed) {
+            buffer.put(ACCOUNT_CLOSED);
+            writeAccount(((AccountClosed) event).account, buffer);
+        } else {
+            throw new IllegalArgumentException(String.format("Event (%s) is not supported", event.getName()));
+        }
+    }
+
+    public static Event decode(ByteBuffer buffer) {
+        var type = buffer.get();
+        switch (type) {
+            case ACCOUNT_CREDITED:
+                return new AccountCredited(readMoney(buffer), readAccount(buffer));
+            case ACCOUNT_DEBITED:
+                return new AccountDebited(readMoney(buffer), readAccount(buffer));
+            case MONEY_TRANSFERRED:
+                return new MoneyTransferred(readString(buffer), readMoney(buffer), readString(buffer), readString(buffer));
+            case MONEY_TRANSFER_FAILED:
+                return new MoneyTransferFailed(readString(buffer), readString(buffer));
+            case MONEY_TRANSFER_FAILED_WITH_ACCOUNTS:
+                return new MoneyTransferFailed(readString(buffer), readString(buffer), readString(buffer), readString(buffer));
+            case ACCOUNT_OPENED:
+                return new AccountOpened(readAccount(buffer));
+            case ACCOUNT_CLOSED:
+                return new AccountClosed(readAccount(buffer));
+            default:
+                throw new IllegalStateException(String.format("Unknown event type (%d)", type));
+        }
+    }
+
+    public static void encode(TransferMoney transferMoney, ByteBuffer buffer) {
+        buffer.put(TRANSFER_MONEY);
+        writeString(transferMoney.id, buffer);
+        writeString(transferMoney.accountIdFrom, buffer);
+        writeString(transferMoney.accountIdTo, buffer);
+        writeMoney(transferMoney.amountToTransfer, buffer);
+    }
+
+    public static TransferMoney decodeTransferMoney(ByteBuffer buffer) {
+        var type = buffer.get();
+        if (type != TRANSFER_MONEY) {
+            throw new IllegalStateException(String.format("Unexpected command type (%d)", type));
+        }
+        return new TransferMoney(readString(buffer), readString(buffer), readString(buffer), readMoney(buffer));
+    }
+
+    private static void writeAccount(Account account, ByteBuffer buffer) {
+        writeString(account.id, buffer);
+        writeString(account.firstName, buffer);
+        writeString(account.lastName, buffer);
+        writeString(MinorUnits.currency(account.currencyIndex()).getCurrencyCode(), buffer);
+        buffer.putLong(account.balanceInMinorUnits());
+        writeString(account.transactionId, buffer);
+        buffer.putLong(account.version());
+    }
+
+    private static Account readAccount(ByteBuffer buffer) {
+        var id = readString(buffer);
+        var firstName = readString(buffer);
+        var lastName = readString(buffer);
+        var currencyIndex = MinorUnits.currencyIndex(Monetary.getCurrency(readString(buffer)));
+        var balance = MinorUnits.toMoney(buffer.getLong(), currencyIndex);
+        var transactionId = readString(buffer);
+        // accounts are always the last field, records journaled before versions were added end here
+        var version = buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0L;
+        return new Account(id, firstName, lastName, balance, transactionId, version);
+    }
+
+    private static void writeMoney(Money money, ByteBuffer buffer) {
+        writeString(money.getCurrency().getCurrencyCode(), buffer);
+        buffer.putLong(MinorUnits.of(money));
+    }
+
+    private static Money readMoney(ByteBuffer buffer) {
+        var currencyIndex = MinorUnits.currencyIndex(Monetary.getCurrency(readString(buffer)));
+        return MinorUnits.toMoney(buffer.getLong(), currencyIndex);
+    }
+
+    private static void writeString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        var bytes = value.getBytes(UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("String of %d bytes is too long to encode", bytes.length));
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var length = buffer.getShort();
+        if (length < 0) return null;
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,130 @@
+package net.soundvibe.journal;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.base.Event;
+import org.slf4j.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Appends every published event to memory mapped journal segments. Events are collected into groups bounded
+ * by {@code maxCommitDelayMillis} and {@code maxCommitBatch}, written on a dedicated thread and forced to disk
+ * once per group, so publishers never wait for the disk.
+ */
+public class EventJournal implements EventBusSubscriber, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+    private static final int MAX_EVENT_SIZE = 64 * 1024;
+
+    private final Counter events = Metrics.counter("journalEvents");
+    private final Counter errors = Metrics.counter("errors", Tags.of("processor", getClass().getSimpleName()));
+    private final Timer commits = Metrics.timer("journalCommits");
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_EVENT_SIZE);
+    private final ExecutorService writerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "event-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Scheduler writer = Schedulers.from(writerExecutor);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxCommitDelayMillis;
+    private final int maxCommitBatch;
+    private JournalSegment segment;
+    private boolean closed;
+
+    public EventJournal(Path directory, int segmentSize, long maxCommitDelayMillis, int maxCommitBatch) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxCommitDelayMillis = maxCommitDelayMillis;
+        this.maxCommitBatch = maxCommitBatch;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var segments = JournalReader.segments(directory);
+        this.segment = segments.isEmpty() ?
+                JournalSegment.create(directory, 1L, segmentSize) :
+                JournalSegment.open(segments.get(segments.size() - 1));
+        log.info("Opened event journal {} at sequence {}", segment.path, segment.lastSequence());
+    }
+
+    @Override
+    public Disposable subscribe(EventBus eventBus) {
+        return eventBus.observeEvents()
+                .filter(EventCodec::supports)
+                .buffer(maxCommitDelayMillis, TimeUnit.MILLISECONDS, writer, maxCommitBatch)
+                .filter(batch -> !batch.isEmpty())
+                .onBackpressureBuffer()
+                .observeOn(writer)
+                .subscribe(this::commit, this::handleError);
+    }
+
+    public synchronized long lastSequence() {
+        return segment.lastSequence();
+    }
+
+    synchronized void commit(List<Event> batch) {
+        if (closed) {
+            log.warn("Event journal is closed, dropping {} events", batch.size());
+            return;
+        }
+        commits.record(() -> {
+            for (var event : batch) {
+                try {
+                    append(event);
+                } catch (RuntimeException e) {
+                    log.error("Unable to journal event {}", event, e);
+                    errors.increment();
+                }
+            }
+            segment.force();
+        });
+        events.increment(batch.size());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            segment.close();
+            writerExecutor.shutdown();
+            log.info("Closed event journal at sequence {}", segment.lastSequence());
+        }
+    }
+
+    private void append(Event event) {
+        scratch.clear();
+        EventCodec.encode(event, scratch);
+        scratch.flip();
+        long sequence = segment.lastSequence() + 1;
+        if (!segment.append(sequence, scratch)) {
+            roll(sequence);
+            if (!segment.append(sequence, scratch)) {
+                throw new IllegalStateException(String.format("Event of %d bytes does not fit into journal segment of %d bytes",
+                        scratch.remaining(), segmentSize));
+            }
+        }
+    }
+
+    private void roll(long nextSequence) {
+        segment.close();
+        segment = JournalSegment.create(directory, nextSequence, segmentSize);
+        log.info("Rolled event journal to {}", segment.path);
+    }
+
+    private void handleError(Throwable e) {
+        log.error("Got error while journaling events", e);
+        errors.increment();
+    }
+}
@@ -0,0 +1,123 @@
+package net.soundvibe.journal;
+
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+public final class JournalReader {
+
+    private JournalReader() {}
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Decodes all journaled events with a sequence greater than {@code afterSequence} in journal order and returns
+     * the sequence of the last event read.
+     */
+    public static long replay(Path directory, long afterSequence, ObjLongConsumer<Event> consumer) {
+        var segments = segments(directory);
+        long lastSequence = afterSequence;
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && JournalSegment.firstSequenceOf(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            var segment = JournalSegment.openReadOnly(segments.get(i));
+            var last = new long[]{lastSequence};
+            segment.scan((sequence, record) -> {
+                if (sequence > afterSequence) {
+                    consumer.accept(EventCodec.decode(record), sequence);
+                    last[0] = sequence;
+                }
+            });
+            lastSequence = last[0];
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Same as {@link #replay(Path, long, ObjLongConsumer)}, but applies events on {@code parallelism} threads.
+     * Events are partitioned by account id or transfer id, so events of the same account or transfer are still
+     * applied in journal order.
+     */
+    public static long replay(Path directory, long afterSequence, int parallelism, Consumer<Event> consumer) {
+        if (parallelism <= 1) {
+            return replay(directory, afterSequence, (event, sequence) -> consumer.accept(event));
+        }
+        var executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            var partitions = newPartitions(parallelism);
+            var lastSequence = replay(directory, afterSequence, (event, sequence) -> {
+                var key = keyOf(event);
+                partitions.get(key == null ? 0 : Math.floorMod(key.hashCode(), parallelism)).add(event);
+                if (sequence % CHUNK_SIZE == 0) {
+                    apply(partitions, consumer, executor);
+                }
+            });
+            apply(partitions, consumer, executor);
+            return lastSequence;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static String keyOf(Event event) {
+        if (event instanceof AccountCredited) return ((AccountCredited) event).account.id;
+        if (event instanceof AccountDebited) return ((AccountDebited) event).account.id;
+        if (event instanceof AccountOpened) return ((AccountOpened) event).account.id;
+        if (event instanceof AccountClosed) return ((AccountClosed) event).account.id;
+        if (event instanceof MoneyTransferred) return ((MoneyTransferred) event).transferId;
+        if (event instanceof MoneyTransferFailed) return ((MoneyTransferFailed) event).transferId;
+        return null;
+    }
+
+    private static List<List<Event>> newPartitions(int count) {
+        var partitions = new ArrayList<List<Event>>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<>(CHUNK_SIZE / count));
+        }
+        return partitions;
+    }
+
+    private static void apply(List<List<Event>> partitions, Consumer<Event> consumer, ExecutorService executor) {
+        var tasks = partitions.stream()
+                .filter(partition -> !partition.isEmpty())
+                .map(partition -> executor.submit(() -> partition.forEach(consumer)))
+                .collect(Collectors.toList());
+        RuntimeException failure = null;
+        for (var task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted while replaying event journal", e);
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof RuntimeException ?
+                        (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        partitions.forEach(List::clear);
+    }
+
+    static List<Path> segments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
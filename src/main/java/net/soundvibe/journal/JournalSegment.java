@@ -0,0 +1,149 @@
+package net.soundvibe.journal;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Memory mapped journal file. Every record is laid out as
+ * {@code [int length][int crc32c][long sequence][event]}, where length and checksum cover sequence and event.
+ * The unused tail of a segment stays zeroed, so a zero length marks the end of written records.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final String SUFFIX = ".journal";
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    final Path path;
+    final long firstSequence;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private long lastSequence;
+
+    private JournalSegment(Path path, long firstSequence, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.buffer = buffer;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) {
+        var path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        return new JournalSegment(path, firstSequence, map(path, size, CREATE_NEW, READ, WRITE));
+    }
+
+    static JournalSegment open(Path path) {
+        try {
+            var segment = new JournalSegment(path, firstSequenceOf(path), map(path, Files.size(path), READ, WRITE));
+            segment.buffer.position(segment.scan((sequence, record) -> segment.lastSequence = sequence));
+            segment.zeroTail();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static JournalSegment openReadOnly(Path path) {
+        try {
+            return new JournalSegment(path, firstSequenceOf(path), map(path, Files.size(path), READ));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().matches("\\d{20}" + SUFFIX);
+    }
+
+    static long firstSequenceOf(Path path) {
+        var fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    }
+
+    boolean append(long sequence, ByteBuffer event) {
+        int length = Long.BYTES + event.remaining();
+        if (buffer.remaining() < HEADER_SIZE + length) {
+            return false;
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(sequence);
+        buffer.put(event);
+        buffer.putInt(start + Integer.BYTES, checksum(start + HEADER_SIZE, length));
+        buffer.putInt(start, length);
+        lastSequence = sequence;
+        return true;
+    }
+
+    /**
+     * Visits all valid records and returns the position right after the last one.
+     */
+    int scan(RecordVisitor visitor) {
+        int position = 0;
+        while (position + HEADER_SIZE + Long.BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < Long.BYTES || position + HEADER_SIZE + length > buffer.limit() ||
+                    buffer.getInt(position + Integer.BYTES) != checksum(position + HEADER_SIZE, length)) {
+                break;
+            }
+            var record = buffer.duplicate();
+            record.position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length);
+            long sequence = record.getLong();
+            visitor.visit(sequence, record.slice());
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    int size() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private int checksum(int offset, int length) {
+        var region = buffer.duplicate();
+        region.position(offset).limit(offset + length);
+        crc.reset();
+        crc.update(region);
+        return (int) crc.getValue();
+    }
+
+    private void zeroTail() {
+        for (int position = buffer.position(); position < buffer.limit(); position++) {
+            if (buffer.get(position) != 0) {
+                buffer.put(position, (byte) 0);
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size, OpenOption... options) {
+        var readOnly = !Arrays.asList(options).contains(WRITE);
+        try (var channel = FileChannel.open(path, options)) {
+            return channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(long sequence, ByteBuffer event);
+    }
+}
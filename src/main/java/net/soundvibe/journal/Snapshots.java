@@ -0,0 +1,198 @@
+package net.soundvibe.journal;
+
+import io.micrometer.core.instrument.Metrics;
+import net.soundvibe.domain.account.AccountRepository;
+import net.soundvibe.domain.account.event.AccountOpened;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.MoneyTransferRepository;
+import org.slf4j.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.*;
+import java.util.zip.*;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Point in time snapshots of account balances and transfer statuses. A snapshot is taken from the live
+ * repositories while transfers keep running and records the journal sequence committed before it started;
+ * replaying the journal after that sequence on top of the snapshot yields the current state, because replayed
+ * events carry complete account and transfer states.
+ * <p>
+ * File layout: {@code [int magic][int version][long sequence][long createdAt]}, entries as
+ * {@code [int length][event]} encoded by {@link EventCodec}, a {@code -1} terminator and a CRC32C of everything
+ * before it.
+ */
+public class Snapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(Snapshots.class);
+
+    private static final int MAGIC = 0x534e4150;
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".snapshot";
+    private static final int MAX_ENTRY_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int retained;
+    private volatile long lastCreatedAt = -1L;
+    private volatile long lastSequence = -1L;
+
+    public Snapshots(Path directory, int retained) {
+        this.directory = directory;
+        this.retained = retained;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Metrics.gauge("snapshotAgeSeconds", this, Snapshots::ageSeconds);
+    }
+
+    /**
+     * Writes a snapshot covering the journal up to {@code sequence}, unless the latest snapshot already covers it.
+     */
+    public Optional<Path> take(long sequence, AccountRepository accountRepository, MoneyTransferRepository moneyTransferRepository) {
+        if (sequence == lastSequence) {
+            return Optional.empty();
+        }
+        var started = System.currentTimeMillis();
+        var path = directory.resolve(String.format("%020d%s", sequence, SUFFIX));
+        var temporary = directory.resolve(path.getFileName() + ".tmp");
+        var entries = new long[1];
+        try (var output = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), new CRC32C());
+             var data = new DataOutputStream(output)) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeLong(sequence);
+            data.writeLong(started);
+            var buffer = ByteBuffer.allocate(MAX_ENTRY_SIZE);
+            accountRepository.forEach(account -> {
+                writeEntry(new AccountOpened(account), buffer, data);
+                entries[0]++;
+            });
+            moneyTransferRepository.forEach(event -> {
+                writeEntry(event, buffer, data);
+                entries[0]++;
+            });
+            data.writeInt(-1);
+            data.flush();
+            data.writeLong(output.getChecksum().getValue());
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temporary);
+            throw e;
+        }
+        try {
+            // the snapshot and its name must both be durable before older snapshots and journal segments are removed
+            force(temporary, StandardOpenOption.WRITE);
+            Files.move(temporary, path, ATOMIC_MOVE);
+            force(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException(e);
+        }
+        lastCreatedAt = started;
+        lastSequence = sequence;
+        log.info("Took snapshot {} with {} entries in {} ms", path, entries[0], System.currentTimeMillis() - started);
+        removeExpired();
+        return Optional.of(path);
+    }
+
+    /**
+     * Loads the latest readable snapshot into the repositories and returns the journal sequence it covers,
+     * or 0 when there is no snapshot.
+     */
+    public long restore(AccountRepository accountRepository, MoneyTransferRepository moneyTransferRepository) {
+        for (var path : snapshots()) {
+            try {
+                var sequence = read(path, event -> {
+                    accountRepository.replay(event);
+                    moneyTransferRepository.replay(event);
+                });
+                log.info("Restored snapshot {}", path);
+                return sequence;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to restore snapshot {}, trying an older one", path, e);
+                accountRepository.clear();
+                moneyTransferRepository.clear();
+            }
+        }
+        return 0L;
+    }
+
+    private long read(Path path, Consumer<Event> consumer) throws IOException {
+        try (var input = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32C());
+             var data = new DataInputStream(input)) {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IllegalStateException(String.format("%s is not a supported snapshot", path));
+            }
+            var sequence = data.readLong();
+            var createdAt = data.readLong();
+            var bytes = new byte[MAX_ENTRY_SIZE];
+            for (int length = data.readInt(); length >= 0; length = data.readInt()) {
+                data.readFully(bytes, 0, length);
+                consumer.accept(EventCodec.decode(ByteBuffer.wrap(bytes, 0, length)));
+            }
+            var checksum = input.getChecksum().getValue();
+            if (data.readLong() != checksum) {
+                throw new IllegalStateException(String.format("Snapshot %s is corrupted", path));
+            }
+            lastCreatedAt = createdAt;
+            lastSequence = sequence;
+            return sequence;
+        }
+    }
+
+    private double ageSeconds() {
+        var createdAt = lastCreatedAt;
+        return createdAt < 0 ? Double.NaN : (System.currentTimeMillis() - createdAt) / 1000.0;
+    }
+
+    private List<Path> snapshots() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void removeExpired() {
+        snapshots().stream()
+                .skip(retained)
+                .forEach(Snapshots::deleteQuietly);
+    }
+
+    private static void writeEntry(Event event, ByteBuffer buffer, DataOutputStream data) {
+        buffer.clear();
+        EventCodec.encode(event, buffer);
+        try {
+            data.writeInt(buffer.position());
+            data.write(buffer.array(), 0, buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void force(Path path, OpenOption option) throws IOException {
+        try (var channel = FileChannel.open(path, option)) {
+            channel.force(true);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Unable to delete {}", path, e);
+        }
+    }
+}
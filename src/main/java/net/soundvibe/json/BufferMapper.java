@@ -0,0 +1,58 @@
+package net.soundvibe.json;
+
+import com.fasterxml.jackson.databind.*;
+import io.netty.buffer.*;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.*;
+
+/**
+ * Reads and writes values of an {@link ObjectMapper} straight from and to buffers, using an
+ * {@link ObjectReader}/{@link ObjectWriter} which is built once per type.
+ */
+final class BufferMapper {
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final ClassValue<ObjectReader> readers;
+    private final ClassValue<ObjectWriter> writers;
+
+    BufferMapper(ObjectMapper objectMapper) {
+        this.readers = new ClassValue<>() {
+            @Override
+            protected ObjectReader computeValue(Class<?> type) {
+                return objectMapper.readerFor(type);
+            }
+        };
+        this.writers = new ClassValue<>() {
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                return objectMapper.writerFor(type);
+            }
+        };
+    }
+
+    <T> T parse(Buffer buffer, Class<T> tClass) {
+        var byteBuf = buffer.getByteBuf();
+        try {
+            if (byteBuf.hasArray()) {
+                return readers.get(tClass).readValue(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes());
+            }
+            try (var input = new ByteBufInputStream(byteBuf)) {
+                return readers.get(tClass).readValue((InputStream) input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Buffer toBuffer(Object object) {
+        var byteBuf = Unpooled.buffer(INITIAL_BUFFER_SIZE);
+        try (var output = new ByteBufOutputStream(byteBuf)) {
+            writers.get(object.getClass()).writeValue((OutputStream) output, object);
+            return Buffer.buffer(byteBuf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.soundvibe.json;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Binary counterpart of {@link Json}: the same object model encoded as CBOR (RFC 7049), which is smaller and
+ * cheaper to write and read than JSON text.
+ */
+public final class Cbor {
+
+    private Cbor() {}
+
+    private static final BufferMapper BUFFER_MAPPER = new BufferMapper(Json.createMapper(new CBORFactory(), Json.DOMAIN_SERIALIZERS));
+
+    public static <T> T parse(Buffer buffer, Class<T> tClass) {
+        return BUFFER_MAPPER.parse(buffer, tClass);
+    }
+
+    public static Buffer toBuffer(Object object) {
+        return BUFFER_MAPPER.toBuffer(object);
+    }
+}
@@ -0,0 +1,295 @@
+package net.soundvibe.json;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+
+import javax.money.*;
+import java.io.IOException;
+import java.math.*;
+
+/**
+ * Streaming serializers and deserializers of the types which are written and read on every transfer. They produce
+ * exactly the same JSON as the reflective serializers with {@code MoneyModule} (amounts are written with at least
+ * the default fraction digits of their currency), but skip constructor introspection and Moneta's formatting.
+ */
+final class DomainModule extends SimpleModule {
+
+    DomainModule() {
+        super(DomainModule.class.getSimpleName());
+        addSerializer(TransferMoney.class, new TransferMoneySerializer());
+        addDeserializer(TransferMoney.class, new TransferMoneyDeserializer());
+        addSerializer(MoneyTransferred.class, new MoneyTransferredSerializer());
+        addDeserializer(MoneyTransferred.class, new MoneyTransferredDeserializer());
+        addSerializer(MoneyTransferFailed.class, new MoneyTransferFailedSerializer());
+        addDeserializer(MoneyTransferFailed.class, new MoneyTransferFailedDeserializer());
+        addSerializer(Account.class, new AccountSerializer());
+        addDeserializer(Account.class, new AccountDeserializer());
+    }
+
+    private static final class TransferMoneySerializer extends StdSerializer<TransferMoney> {
+
+        TransferMoneySerializer() {
+            super(TransferMoney.class);
+        }
+
+        @Override
+        public void serialize(TransferMoney value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("id", value.id);
+            gen.writeStringField("accountIdFrom", value.accountIdFrom);
+            gen.writeStringField("accountIdTo", value.accountIdTo);
+            writeMoneyField(gen, "amountToTransfer", value.amountToTransfer);
+            gen.writeStringField("name", value.getName());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class TransferMoneyDeserializer extends StdDeserializer<TransferMoney> {
+
+        TransferMoneyDeserializer() {
+            super(TransferMoney.class);
+        }
+
+        @Override
+        public TransferMoney deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String id = null, accountIdFrom = null, accountIdTo = null;
+            Money amountToTransfer = null;
+            for (var field = startObject(p, ctxt, TransferMoney.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "id": id = text(p, ctxt); break;
+                    case "accountIdFrom": accountIdFrom = text(p, ctxt); break;
+                    case "accountIdTo": accountIdTo = text(p, ctxt); break;
+                    case "amountToTransfer": amountToTransfer = money(p, ctxt); break;
+                    default: p.skipChildren();
+                }
+            }
+            try {
+                return new TransferMoney(id, accountIdFrom, accountIdTo, amountToTransfer);
+            } catch (RuntimeException e) {
+                throw invalid(p, TransferMoney.class, e);
+            }
+        }
+    }
+
+    private static final class MoneyTransferredSerializer extends StdSerializer<MoneyTransferred> {
+
+        MoneyTransferredSerializer() {
+            super(MoneyTransferred.class);
+        }
+
+        @Override
+        public void serialize(MoneyTransferred value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("transferId", value.transferId);
+            writeMoneyField(gen, "amount", value.amount);
+            gen.writeStringField("accountIdFrom", value.accountIdFrom);
+            gen.writeStringField("accountIdTo", value.accountIdTo);
+            gen.writeStringField("name", value.getName());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class MoneyTransferredDeserializer extends StdDeserializer<MoneyTransferred> {
+
+        MoneyTransferredDeserializer() {
+            super(MoneyTransferred.class);
+        }
+
+        @Override
+        public MoneyTransferred deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String transferId = null, accountIdFrom = null, accountIdTo = null;
+            Money amount = null;
+            for (var field = startObject(p, ctxt, MoneyTransferred.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "transferId": transferId = text(p, ctxt); break;
+                    case "amount": amount = money(p, ctxt); break;
+                    case "accountIdFrom": accountIdFrom = text(p, ctxt); break;
+                    case "accountIdTo": accountIdTo = text(p, ctxt); break;
+                    default: p.skipChildren();
+                }
+            }
+            return new MoneyTransferred(transferId, amount, accountIdFrom, accountIdTo);
+        }
+    }
+
+    private static final class MoneyTransferFailedSerializer extends StdSerializer<MoneyTransferFailed> {
+
+        MoneyTransferFailedSerializer() {
+            super(MoneyTransferFailed.class);
+        }
+
+        @Override
+        public void serialize(MoneyTransferFailed value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("transferId", value.transferId);
+            gen.writeStringField("cause", value.cause);
+            if (value.accountIdFrom != null) {
+                gen.writeStringField("accountIdFrom", value.accountIdFrom);
+            }
+            if (value.accountIdTo != null) {
+                gen.writeStringField("accountIdTo", value.accountIdTo);
+            }
+            gen.writeStringField("name", value.getName());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class MoneyTransferFailedDeserializer extends StdDeserializer<MoneyTransferFailed> {
+
+        MoneyTransferFailedDeserializer() {
+            super(MoneyTransferFailed.class);
+        }
+
+        @Override
+        public MoneyTransferFailed deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String transferId = null, cause = null, accountIdFrom = null, accountIdTo = null;
+            for (var field = startObject(p, ctxt, MoneyTransferFailed.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "transferId": transferId = text(p, ctxt); break;
+                    case "cause": cause = text(p, ctxt); break;
+                    case "accountIdFrom": accountIdFrom = text(p, ctxt); break;
+                    case "accountIdTo": accountIdTo = text(p, ctxt); break;
+                    default: p.skipChildren();
+                }
+            }
+            return new MoneyTransferFailed(transferId, cause, accountIdFrom, accountIdTo);
+        }
+    }
+
+    private static final class AccountSerializer extends StdSerializer<Account> {
+
+        AccountSerializer() {
+            super(Account.class);
+        }
+
+        @Override
+        public void serialize(Account value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("id", value.id);
+            gen.writeStringField("firstName", value.firstName);
+            gen.writeStringField("lastName", value.lastName);
+            writeMoneyField(gen, "balance", value.balance());
+            gen.writeStringField("transactionId", value.transactionId);
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class AccountDeserializer extends StdDeserializer<Account> {
+
+        AccountDeserializer() {
+            super(Account.class);
+        }
+
+        @Override
+        public Account deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String id = null, firstName = null, lastName = null, transactionId = null;
+            Money balance = null;
+            for (var field = startObject(p, ctxt, Account.class); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "id": id = text(p, ctxt); break;
+                    case "firstName": firstName = text(p, ctxt); break;
+                    case "lastName": lastName = text(p, ctxt); break;
+                    case "balance": balance = money(p, ctxt); break;
+                    case "transactionId": transactionId = text(p, ctxt); break;
+                    default: p.skipChildren();
+                }
+            }
+            try {
+                return new Account(id, firstName, lastName, balance, transactionId);
+            } catch (RuntimeException e) {
+                throw invalid(p, Account.class, e);
+            }
+        }
+    }
+
+    private static void writeMoneyField(JsonGenerator gen, String fieldName, Money money) throws IOException {
+        if (money == null) {
+            gen.writeNullField(fieldName);
+            return;
+        }
+        var decimal = money.getNumber().numberValueExact(BigDecimal.class);
+        var currency = money.getCurrency();
+        gen.writeObjectFieldStart(fieldName);
+        gen.writeFieldName("amount");
+        gen.writeNumber(decimal.setScale(Math.max(decimal.scale(), currency.getDefaultFractionDigits()), RoundingMode.UNNECESSARY));
+        gen.writeStringField("currency", currency.getCurrencyCode());
+        gen.writeEndObject();
+    }
+
+    private static Money money(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        BigDecimal amount = null;
+        CurrencyUnit currency = null;
+        for (var field = startObject(p, ctxt, Money.class); field != null; field = p.nextFieldName()) {
+            var token = p.nextToken();
+            switch (field) {
+                case "amount":
+                    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                        amount = p.getDecimalValue();
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        amount = decimal(p);
+                    } else {
+                        ctxt.handleUnexpectedToken(BigDecimal.class, p);
+                    }
+                    break;
+                case "currency":
+                    currency = currency(p, text(p, ctxt));
+                    break;
+                default: p.skipChildren();
+            }
+        }
+        if (amount == null || currency == null) {
+            throw JsonMappingException.from(p, "Money requires both amount and currency");
+        }
+        return Money.of(amount, currency);
+    }
+
+    private static BigDecimal decimal(JsonParser p) throws IOException {
+        try {
+            return new BigDecimal(p.getText().trim());
+        } catch (NumberFormatException e) {
+            throw invalid(p, BigDecimal.class, e);
+        }
+    }
+
+    private static CurrencyUnit currency(JsonParser p, String currencyCode) throws IOException {
+        try {
+            return currencyCode == null ? null : Monetary.getCurrency(currencyCode);
+        } catch (MonetaryException e) {
+            throw invalid(p, CurrencyUnit.class, e);
+        }
+    }
+
+    private static String startObject(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+        var token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return p.nextFieldName();
+        } else if (token == JsonToken.FIELD_NAME) {
+            return p.getCurrentName();
+        }
+        ctxt.handleUnexpectedToken(type, p);
+        return null;
+    }
+
+    private static String text(JsonParser p, DeserializationContext ctxt) throws IOException {
+        var token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token.isScalarValue()) return p.getText();
+        return (String) ctxt.handleUnexpectedToken(String.class, p);
+    }
+
+    private static JsonMappingException invalid(JsonParser p, Class<?> type, Exception e) {
+        return JsonMappingException.from(p, String.format("Cannot construct %s: %s", type.getSimpleName(), e.getMessage()), e);
+    }
+}
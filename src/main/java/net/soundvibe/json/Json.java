@@ -1,22 +1,39 @@
 package net.soundvibe.json;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.vavr.control.Try;
+import io.vertx.core.buffer.Buffer;
 import org.zalando.jackson.datatype.money.MoneyModule;
 
 import java.io.*;
+import java.util.function.Consumer;
 
 public final class Json {
 
     private Json() {}
 
-    private static final ObjectMapper JSON_MAPPER = createMapper();
+    /**
+     * Set {@code -Djson.domain.serializers=false} to fall back to reflective serialization of the hot domain types.
+     */
+    static final boolean DOMAIN_SERIALIZERS = Boolean.parseBoolean(System.getProperty("json.domain.serializers", "true"));
 
-    private static ObjectMapper createMapper() {
-        var objectMapper = new ObjectMapper();
+    private static final ObjectMapper JSON_MAPPER = createMapper(DOMAIN_SERIALIZERS);
+    private static final BufferMapper BUFFER_MAPPER = new BufferMapper(JSON_MAPPER);
+
+    static ObjectMapper createMapper(boolean domainSerializers) {
+        return createMapper(new JsonFactory(), domainSerializers);
+    }
+
+    static ObjectMapper createMapper(JsonFactory jsonFactory, boolean domainSerializers) {
+        var objectMapper = new ObjectMapper(jsonFactory);
         objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
         objectMapper.registerModules(new MoneyModule(), new JavaTimeModule(), new ParameterNamesModule());
+        if (domainSerializers) {
+            objectMapper.registerModule(new DomainModule());
+        }
         return objectMapper;
     }
 
@@ -28,6 +45,17 @@ public final class Json {
         }
     }
 
+    /**
+     * Parses UTF-8 JSON straight from the bytes of the buffer, without decoding them to a String first.
+     */
+    public static <T> T parse(Buffer buffer, Class<T> tClass) {
+        return BUFFER_MAPPER.parse(buffer, tClass);
+    }
+
+    public static <T> JsonStreamParser<T> streamParser(Class<T> tClass, Consumer<Try<T>> consumer) {
+        return new JsonStreamParser<>(JSON_MAPPER, tClass, consumer);
+    }
+
     public static String toString(Object object) {
         try {
             return JSON_MAPPER.writeValueAsString(object);
@@ -35,4 +63,11 @@ public final class Json {
             throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Writes the object as UTF-8 JSON directly into a buffer which can be handed over to Netty without copying.
+     */
+    public static Buffer toBuffer(Object object) {
+        return BUFFER_MAPPER.toBuffer(object);
+    }
 }
@@ -0,0 +1,89 @@
+package net.soundvibe.json;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.vavr.control.Try;
+
+import java.io.*;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser of a JSON array or a stream of whitespace separated JSON values (e.g. NDJSON). Input is fed
+ * in arbitrary chunks and every complete value is passed to the consumer as soon as it has been read, so only the
+ * value being read is kept in memory. Values that cannot be mapped are passed as failures without stopping the
+ * stream, while malformed JSON fails the whole stream.
+ */
+public final class JsonStreamParser<T> {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final ObjectReader reader;
+    private final Consumer<Try<T>> consumer;
+    private TokenBuffer value;
+    private int depth;
+    private boolean inArray;
+
+    JsonStreamParser(ObjectMapper mapper, Class<T> type, Consumer<Try<T>> consumer) {
+        try {
+            this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.reader = mapper.readerFor(type);
+        this.consumer = consumer;
+    }
+
+    public void feed(byte[] bytes) {
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void end() {
+        try {
+            feeder.endOfInput();
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (value != null || inArray) {
+            throw new UncheckedIOException(new JsonEOFException(parser, null, "Unexpected end of JSON input"));
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (value == null) {
+                if (token == JsonToken.START_ARRAY && !inArray) {
+                    inArray = true;
+                    continue;
+                }
+                if (token == JsonToken.END_ARRAY && inArray) {
+                    inArray = false;
+                    continue;
+                }
+                value = new TokenBuffer(parser);
+                value.forceUseOfBigDecimal(true);
+            }
+            value.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 0) {
+                var completed = value;
+                value = null;
+                consumer.accept(Try.of(() -> reader.readValue(completed.asParser())));
+            }
+        }
+    }
+}
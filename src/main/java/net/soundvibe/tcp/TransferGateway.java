@@ -0,0 +1,220 @@
+package net.soundvibe.tcp;
+
+import io.micrometer.core.instrument.*;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+import net.soundvibe.bus.EventBus;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import net.soundvibe.journal.EventCodec;
+import org.slf4j.*;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Accepts transfers over plain TCP. Every frame is a big endian int length followed by that many bytes of a
+ * {@link EventCodec} encoded {@link TransferMoney}. Clients may pipeline up to {@code maxInFlight} transfers per
+ * connection; every transfer is answered with a frame of the same layout holding its outcome
+ * ({@link MoneyTransferred} or {@link MoneyTransferFailed}) as soon as it is known, so outcomes may arrive out of
+ * request order. When the connection has too many transfers in flight or transfers are not admitted, reading from
+ * the socket is paused instead of rejecting them. A malformed frame closes the connection.
+ */
+public class TransferGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferGateway.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4096;
+    static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    private static final int LENGTH_FIELD = Integer.BYTES;
+    private static final int PUBLISH_BATCH_SIZE = 256;
+    private static final int INITIAL_FRAME_BUFFER_SIZE = 512;
+    private static final long ADMISSION_RETRY_DELAY_MILLIS = 10L;
+
+    private final EventBus eventBus;
+    private final TransferAdmissionController admissionController;
+    private final TransferCompletions completions;
+    private final int maxInFlight;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter transfers = Metrics.counter("tcpTransfers");
+    private final Counter malformedFrames = Metrics.counter("tcpMalformedFrames");
+
+    public TransferGateway(EventBus eventBus, TransferAdmissionController admissionController,
+                           TransferCompletions completions, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException(String.format("Max in flight transfers must be positive but was %d", maxInFlight));
+        }
+        this.eventBus = eventBus;
+        this.admissionController = admissionController;
+        this.completions = completions;
+        this.maxInFlight = maxInFlight;
+        Metrics.gauge("tcpConnections", connections);
+    }
+
+    public void handle(NetSocket socket) {
+        new Connection(Vertx.currentContext(), socket).start();
+    }
+
+    private final class Connection {
+
+        private final Context context;
+        private final NetSocket socket;
+        private final RecordParser parser = RecordParser.newFixed(LENGTH_FIELD);
+        private final Deque<TransferMoney> waiting = new ArrayDeque<>();
+        private final List<TransferMoney> pending = new ArrayList<>(PUBLISH_BATCH_SIZE);
+        private final Map<String, CompletableFuture<Event>> awaiting = new HashMap<>();
+        private final Queue<Event> outcomes = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private ByteBuffer frameBuffer = ByteBuffer.allocate(INITIAL_FRAME_BUFFER_SIZE);
+        private int inFlight;
+        private boolean readingLength = true;
+        private boolean waitingForAdmission;
+        private boolean closed;
+
+        Connection(Context context, NetSocket socket) {
+            this.context = context;
+            this.socket = socket;
+        }
+
+        void start() {
+            connections.incrementAndGet();
+            parser.handler(this::frame);
+            socket.handler(chunk -> {
+                parser.handle(chunk);
+                drain();
+            });
+            socket.closeHandler(v -> close());
+            socket.exceptionHandler(this::handleError);
+        }
+
+        private void frame(Buffer buffer) {
+            if (closed) return;
+            if (readingLength) {
+                var length = buffer.getInt(0);
+                if (length <= 0 || length > MAX_FRAME_LENGTH) {
+                    malformed(new IllegalStateException(String.format("Invalid frame length (%d)", length)));
+                    return;
+                }
+                readingLength = false;
+                parser.fixedSizeMode(length);
+            } else {
+                readingLength = true;
+                parser.fixedSizeMode(LENGTH_FIELD);
+                try {
+                    waiting.add(EventCodec.decodeTransferMoney(ByteBuffer.wrap(buffer.getBytes())));
+                } catch (RuntimeException e) {
+                    malformed(e);
+                }
+            }
+        }
+
+        private void drain() {
+            if (closed) return;
+            while (!waiting.isEmpty() && inFlight < maxInFlight && admissionController.tryAdmit(waiting.peek().id)) {
+                accept(waiting.poll());
+            }
+            publishPending();
+            if (waiting.isEmpty()) {
+                socket.resume();
+                return;
+            }
+            socket.pause();
+            if (inFlight < maxInFlight && !waitingForAdmission) {
+                waitingForAdmission = true;
+                context.owner().setTimer(ADMISSION_RETRY_DELAY_MILLIS, timerId -> {
+                    waitingForAdmission = false;
+                    drain();
+                });
+            }
+        }
+
+        private void accept(TransferMoney transferMoney) {
+            inFlight++;
+            var completion = completions.await(transferMoney.id);
+            awaiting.put(transferMoney.id, completion);
+            completion.whenComplete((event, e) -> {
+                if (event != null) {
+                    outcomes.add(event);
+                    scheduleFlush();
+                }
+            });
+            pending.add(transferMoney);
+            if (pending.size() >= PUBLISH_BATCH_SIZE) {
+                publishPending();
+            }
+        }
+
+        private void publishPending() {
+            if (pending.isEmpty()) return;
+            pending.forEach(TransferMoney::published);
+            eventBus.publishAll(pending);
+            transfers.increment(pending.size());
+            pending.clear();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                context.runOnContext(v -> flush());
+            }
+        }
+
+        private void flush() {
+            flushScheduled.set(false);
+            var output = Buffer.buffer();
+            Event event;
+            while ((event = outcomes.poll()) != null) {
+                inFlight--;
+                awaiting.remove(((TransferOutcome) event).transferId());
+                appendFrame(output, event);
+            }
+            if (closed || output.length() == 0) return;
+            socket.write(output);
+            drain();
+        }
+
+        private void appendFrame(Buffer output, Event event) {
+            while (true) {
+                try {
+                    frameBuffer.clear();
+                    EventCodec.encode(event, frameBuffer);
+                    frameBuffer.flip();
+                    output.appendInt(frameBuffer.remaining());
+                    output.appendBytes(frameBuffer.array(), 0, frameBuffer.remaining());
+                    return;
+                } catch (BufferOverflowException e) {
+                    frameBuffer = ByteBuffer.allocate(frameBuffer.capacity() * 2);
+                }
+            }
+        }
+
+        private void malformed(Throwable e) {
+            log.warn("Closing connection from {} after malformed transfer frame", socket.remoteAddress(), e);
+            malformedFrames.increment();
+            waiting.clear();
+            publishPending();
+            socket.close();
+            close();
+        }
+
+        private void close() {
+            if (closed) return;
+            closed = true;
+            connections.decrementAndGet();
+            awaiting.forEach(completions::cancel);
+            awaiting.clear();
+        }
+
+        private void handleError(Throwable e) {
+            log.error("{} error", TransferGateway.class.getSimpleName(), e);
+            socket.close();
+            close();
+        }
+    }
+}
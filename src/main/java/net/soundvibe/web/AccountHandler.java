@@ -2,45 +2,53 @@ package net.soundvibe.web;
 
 import io.vavr.control.Try;
 import io.vertx.ext.web.RoutingContext;
+import net.soundvibe.bus.EventBus;
 import net.soundvibe.domain.account.Account;
 import net.soundvibe.domain.account.AccountRepository;
-import net.soundvibe.json.Json;
+import net.soundvibe.domain.account.event.*;
 
 import java.util.Optional;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
-import static net.soundvibe.web.HttpHeader.JSON_CONTENT;
 
 public class AccountHandler {
 
     private final AccountRepository accountRepository;
+    private final EventBus eventBus;
 
-    public AccountHandler(AccountRepository accountRepository) {
+    public AccountHandler(AccountRepository accountRepository, EventBus eventBus) {
         this.accountRepository = accountRepository;
+        this.eventBus = eventBus;
     }
 
     public void open(RoutingContext ctx) {
-        Try.of(() -> Json.parse(ctx.getBodyAsString(), Account.class))
+        Try.of(() -> WireFormat.ofRequest(ctx).decode(ctx.getBody(), Account.class))
                 .map(accountRepository::open)
                 .onFailure(e -> ctx.response()
                         .setStatusCode(BAD_REQUEST.code())
                         .end())
-                .forEach(account -> ctx.response()
-                        .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                        .setStatusCode(CREATED.code())
-                        .end(Json.toString(account)));
+                .andThen(account -> eventBus.publish(new AccountOpened(account)))
+                .forEach(account -> respond(ctx, CREATED.code(), account));
     }
 
     public void close(RoutingContext ctx) {
         Optional.ofNullable(ctx.request().getParam("accountId"))
                 .map(accountRepository::close)
                 .ifPresentOrElse(
-                        closedAccount -> ctx.response()
-                                .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                                .setStatusCode(OK.code())
-                                .end(Json.toString(closedAccount)),
+                        closedAccount -> {
+                            eventBus.publish(new AccountClosed(closedAccount));
+                            respond(ctx, OK.code(), closedAccount);
+                        },
                         () -> ctx.response()
                                 .setStatusCode(NO_CONTENT.code())
                                 .end());
     }
+
+    private void respond(RoutingContext ctx, int statusCode, Account account) {
+        var format = WireFormat.ofResponse(ctx);
+        ctx.response()
+                .putHeader(format.contentType.name, format.contentType.value)
+                .setStatusCode(statusCode)
+                .end(format.encode(account));
+    }
 }
@@ -0,0 +1,216 @@
+package net.soundvibe.web;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import io.micrometer.core.instrument.*;
+import io.vavr.control.Try;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.*;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import net.soundvibe.bus.EventBus;
+import net.soundvibe.domain.transfer.TransferAdmissionController;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.json.*;
+import org.slf4j.*;
+
+import java.util.*;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.*;
+import static net.soundvibe.web.HttpHeader.*;
+
+/**
+ * Accepts many transfers in one request, either as a JSON array or as NDJSON. The body is parsed while it is being
+ * received, commands are published in batches and per item results (transfer id or error) are streamed back in
+ * request order using the same format as the request, so memory use does not depend on the batch size. While
+ * transfers are not admitted, reading of the request is paused instead of rejecting them.
+ */
+public class BatchTransferHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchTransferHandler.class);
+    private static final int PUBLISH_BATCH_SIZE = 256;
+    private static final long ADMISSION_RETRY_DELAY_MILLIS = 10L;
+
+    private final Counter transfers = Metrics.counter("batchTransfers", Tags.of("result", "accepted"));
+    private final Counter rejected = Metrics.counter("batchTransfers", Tags.of("result", "rejected"));
+    private final EventBus eventBus;
+    private final TransferAdmissionController admissionController;
+
+    public BatchTransferHandler(EventBus eventBus, TransferAdmissionController admissionController) {
+        this.eventBus = eventBus;
+        this.admissionController = admissionController;
+    }
+
+    public void transfer(RoutingContext ctx) {
+        var contentType = Optional.ofNullable(ctx.request().getHeader(HttpHeaders.CONTENT_TYPE)).orElse("");
+        new BatchTransfer(ctx.vertx(), ctx.request(), ctx.response(), contentType.startsWith(NDJSON_CONTENT.value)).start();
+    }
+
+    private final class BatchTransfer {
+
+        private final Vertx vertx;
+        private final HttpServerRequest request;
+        private final HttpServerResponse response;
+        private final boolean ndjson;
+        private final JsonStreamParser<TransferMoney> parser;
+        private final Deque<Try<TransferMoney>> parsed = new ArrayDeque<>();
+        private final List<TransferMoney> pending = new ArrayList<>(PUBLISH_BATCH_SIZE);
+        private Buffer output = Buffer.buffer();
+        private boolean firstResult = true;
+        private boolean ended;
+        private boolean completed;
+        private boolean waitingForAdmission;
+        private Throwable failure;
+
+        BatchTransfer(Vertx vertx, HttpServerRequest request, HttpServerResponse response, boolean ndjson) {
+            this.vertx = vertx;
+            this.request = request;
+            this.response = response;
+            this.ndjson = ndjson;
+            this.parser = Json.streamParser(TransferMoney.class, parsed::add);
+        }
+
+        void start() {
+            response.setChunked(true)
+                    .putHeader(JSON_CONTENT.name, ndjson ? NDJSON_CONTENT.value : JSON_CONTENT.value);
+            if (!ndjson) {
+                output.appendString("[");
+            }
+            request.handler(this::feed)
+                    .endHandler(v -> end())
+                    .exceptionHandler(this::handleError);
+        }
+
+        private void feed(Buffer chunk) {
+            if (ended) return;
+            try {
+                parser.feed(chunk.getBytes());
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            drain();
+        }
+
+        private void end() {
+            if (ended) return;
+            try {
+                parser.end();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            ended = true;
+            drain();
+        }
+
+        private void drain() {
+            if (completed) return;
+            while (!parsed.isEmpty()) {
+                var item = parsed.peek();
+                if (item.isSuccess() && !admissionController.tryAdmit(item.get().id)) {
+                    break;
+                }
+                accept(parsed.poll());
+            }
+            publishPending();
+            flush();
+            if (!parsed.isEmpty()) {
+                waitForAdmission();
+            } else if (ended) {
+                complete();
+            } else if (response.writeQueueFull()) {
+                request.pause();
+                response.drainHandler(v -> request.resume());
+            } else {
+                request.resume();
+            }
+        }
+
+        private void waitForAdmission() {
+            request.pause();
+            if (!waitingForAdmission) {
+                waitingForAdmission = true;
+                vertx.setTimer(ADMISSION_RETRY_DELAY_MILLIS, timerId -> {
+                    waitingForAdmission = false;
+                    drain();
+                });
+            }
+        }
+
+        private void accept(Try<TransferMoney> item) {
+            item.onSuccess(transferMoney -> {
+                pending.add(transferMoney);
+                appendResult(new JsonObject().put("transferId", transferMoney.id));
+                if (pending.size() >= PUBLISH_BATCH_SIZE) {
+                    publishPending();
+                }
+            }).onFailure(e -> {
+                rejected.increment();
+                appendResult(new JsonObject().put("error", messageOf(e)));
+            });
+        }
+
+        private void fail(Throwable e) {
+            log.warn("Rejecting the rest of malformed transfer batch", e);
+            failure = e;
+            ended = true;
+        }
+
+        private void complete() {
+            completed = true;
+            if (failure != null) {
+                if (!response.headWritten()) {
+                    response.setStatusCode(BAD_REQUEST.code());
+                }
+                appendResult(new JsonObject().put("error", messageOf(failure)));
+            }
+            if (!ndjson) {
+                output.appendString("]");
+            }
+            if (!response.headWritten() && response.getStatusCode() == OK.code()) {
+                response.setStatusCode(ACCEPTED.code());
+            }
+            response.end(output);
+        }
+
+        private void publishPending() {
+            if (pending.isEmpty()) return;
+            pending.forEach(TransferMoney::published);
+            eventBus.publishAll(pending);
+            transfers.increment(pending.size());
+            pending.clear();
+        }
+
+        private void appendResult(JsonObject result) {
+            if (ndjson) {
+                output.appendString(result.encode()).appendString("\n");
+            } else {
+                output.appendString(firstResult ? "" : ",").appendString(result.encode());
+            }
+            firstResult = false;
+        }
+
+        private void flush() {
+            if (!firstResult && output.length() > 0) {
+                if (!response.headWritten()) {
+                    response.setStatusCode(ACCEPTED.code());
+                }
+                response.write(output);
+                output = Buffer.buffer();
+            }
+        }
+
+        private void handleError(Throwable e) {
+            log.error("{} error", BatchTransferHandler.class.getSimpleName(), e);
+            ended = true;
+            completed = true;
+            parsed.clear();
+            publishPending();
+        }
+
+        private String messageOf(Throwable e) {
+            var cause = e.getCause() != null && !(e instanceof JsonMappingException) ? e.getCause() : e;
+            return cause instanceof JsonMappingException ?
+                    ((JsonMappingException) cause).getOriginalMessage() : String.valueOf(cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package net.soundvibe.web;
+
+import io.micrometer.core.instrument.*;
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.Context;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import net.soundvibe.bus.EventBus;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.event.*;
+import net.soundvibe.json.Json;
+import org.slf4j.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Streams transfer outcomes and account balance changes as server-sent events. Every connection may have at most
+ * {@code maxPendingEvents} events which were published but not yet handed over to the connection; a client which
+ * falls further behind is disconnected, so slow clients never hold back the event bus.
+ */
+public class EventStreamHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStreamHandler.class);
+
+    private final EventBus eventBus;
+    private final int maxPendingEvents;
+    private final AtomicInteger clients = new AtomicInteger();
+    private final Counter droppedClients = Metrics.counter("eventStreamDroppedClients");
+
+    public EventStreamHandler(EventBus eventBus, int maxPendingEvents) {
+        this.eventBus = eventBus;
+        this.maxPendingEvents = maxPendingEvents;
+        Metrics.gauge("eventStreamClients", clients);
+    }
+
+    public void stream(RoutingContext ctx) {
+        var response = ctx.response()
+                .setChunked(true)
+                .putHeader("content-type", "text/event-stream")
+                .putHeader("cache-control", "no-cache");
+        response.write(": connected\n\n");
+        new EventStream(ctx.vertx().getOrCreateContext(), response, ctx.request().getParam("accountId")).start();
+    }
+
+    static boolean matches(Event event, String accountId) {
+        if (event instanceof MoneyTransferred) {
+            var moneyTransferred = (MoneyTransferred) event;
+            return accountId == null || accountId.equals(moneyTransferred.accountIdFrom) || accountId.equals(moneyTransferred.accountIdTo);
+        } else if (event instanceof MoneyTransferFailed) {
+            var moneyTransferFailed = (MoneyTransferFailed) event;
+            return accountId == null || accountId.equals(moneyTransferFailed.accountIdFrom) || accountId.equals(moneyTransferFailed.accountIdTo);
+        } else if (event instanceof AccountCredited) {
+            return accountId == null || accountId.equals(((AccountCredited) event).account.id);
+        } else if (event instanceof AccountDebited) {
+            return accountId == null || accountId.equals(((AccountDebited) event).account.id);
+        }
+        return false;
+    }
+
+    private final class EventStream {
+
+        private final Context context;
+        private final HttpServerResponse response;
+        private final String accountId;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Deque<Event> queue = new ArrayDeque<>();
+        private volatile Disposable subscription;
+
+        EventStream(Context context, HttpServerResponse response, String accountId) {
+            this.context = context;
+            this.response = response;
+            this.accountId = accountId;
+        }
+
+        void start() {
+            clients.incrementAndGet();
+            response.closeHandler(v -> close());
+            subscription = eventBus.observeEvents()
+                    .filter(event -> matches(event, accountId))
+                    .subscribe(this::offer, this::handleError);
+            if (closed.get()) {
+                subscription.dispose();
+            }
+        }
+
+        private void offer(Event event) {
+            if (pending.incrementAndGet() > maxPendingEvents) {
+                drop();
+                return;
+            }
+            context.runOnContext(v -> {
+                queue.add(event);
+                writeQueued();
+            });
+        }
+
+        private void writeQueued() {
+            while (!queue.isEmpty() && !response.writeQueueFull() && !closed.get()) {
+                var event = queue.poll();
+                response.write("event: " + event.getName() + "\ndata: " + Json.toString(event) + "\n\n");
+                pending.decrementAndGet();
+            }
+            if (!queue.isEmpty() && !closed.get()) {
+                response.drainHandler(v -> writeQueued());
+            }
+        }
+
+        private void drop() {
+            if (closed.get()) return;
+            log.warn("Disconnecting event stream client which is more than {} events behind", maxPendingEvents);
+            droppedClients.increment();
+            context.runOnContext(v -> response.close());
+            close();
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                clients.decrementAndGet();
+                Optional.ofNullable(subscription).ifPresent(Disposable::dispose);
+            }
+        }
+
+        private void handleError(Throwable e) {
+            log.error("{} error", EventStreamHandler.class.getSimpleName(), e);
+            context.runOnContext(v -> response.close());
+            close();
+        }
+    }
+}
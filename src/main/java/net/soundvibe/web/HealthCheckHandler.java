@@ -18,15 +18,21 @@ public class HealthCheckHandler implements Handler<RoutingContext> {
         return new HealthCheckHandler(subscribersSupervisor);
     }
 
+    /**
+     * Replies {@code Healthy} or {@code 503} depending on whether event bus subscribers are subscribed and on their
+     * lag, followed by the lag of every subscriber, one {@code <subscriber> lag=<messages>} line each.
+     */
     @Override
     public void handle(RoutingContext ctx) {
+        var lags = new StringBuilder();
+        subscribersSupervisor.lags().forEach((subscriber, lag) -> lags.append('\n').append(subscriber).append(" lag=").append(lag));
         if (subscribersSupervisor.isHealthy()) {
-            ctx.response().end("Healthy");
+            ctx.response().end("Healthy" + lags);
         } else {
             ctx.response()
                     .setStatusCode(SERVICE_UNAVAILABLE.code())
                     .setStatusMessage("Service is down")
-                    .end();
+                    .end("Unhealthy" + lags);
         }
     }
 }
@@ -2,7 +2,9 @@ package net.soundvibe.web;
 
 public enum HttpHeader {
 
-    JSON_CONTENT("content-type", "application/json");
+    JSON_CONTENT("content-type", "application/json"),
+    NDJSON_CONTENT("content-type", "application/x-ndjson"),
+    CBOR_CONTENT("content-type", "application/cbor");
 
     public final String name;
     public final String value;
@@ -0,0 +1,44 @@
+package net.soundvibe.web;
+
+import io.vertx.core.*;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.ext.web.Router;
+import org.slf4j.*;
+
+import java.util.function.Consumer;
+
+/**
+ * Serves the HTTP API on the event loop of this verticle. Deploying several instances on the same port lets Vert.x
+ * spread connections between their event loops, while every instance routes to the same (thread safe) handlers
+ * configured by {@code routes}.
+ */
+public class HttpVerticle extends AbstractVerticle {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpVerticle.class);
+
+    private final int port;
+    private final Consumer<Router> routes;
+
+    public HttpVerticle(int port, Consumer<Router> routes) {
+        this.port = port;
+        this.routes = routes;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        var router = Router.router(vertx);
+        routes.accept(router);
+        vertx.createHttpServer(new HttpServerOptions()
+                .setPort(port)
+                .setSsl(false))
+                .requestHandler(router)
+                .listen(handler -> {
+                    if (handler.succeeded()) {
+                        log.debug("Http Server instance started on port {}", handler.result().actualPort());
+                        startPromise.complete();
+                    } else {
+                        startPromise.fail(handler.cause());
+                    }
+                });
+    }
+}
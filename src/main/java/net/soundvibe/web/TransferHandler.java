@@ -1,13 +1,15 @@
 package net.soundvibe.web;
 
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.vavr.control.Try;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import net.soundvibe.bus.EventBus;
-import net.soundvibe.domain.transfer.MoneyTransferRepository;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.*;
 import net.soundvibe.domain.transfer.command.TransferMoney;
 import net.soundvibe.domain.transfer.event.*;
-import net.soundvibe.json.Json;
 import org.slf4j.*;
 
 import java.util.Optional;
@@ -15,57 +17,135 @@ import java.util.Optional;
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static io.vavr.API.*;
 import static io.vavr.Predicates.instanceOf;
-import static net.soundvibe.web.HttpHeader.JSON_CONTENT;
 
 public class TransferHandler {
 
     private static final Logger log = LoggerFactory.getLogger(TransferHandler.class);
+    private static final String RECEIVED_AT = "receivedAtNanos";
 
     private final EventBus eventBus;
     private final MoneyTransferRepository moneyTransferRepository;
+    private final TransferAdmissionController admissionController;
+    private final TransferCompletions completions;
+    private final long retryAfterSeconds;
+    private final long maxWaitMillis;
 
-    public TransferHandler(EventBus eventBus, MoneyTransferRepository moneyTransferRepository) {
+    public TransferHandler(EventBus eventBus, MoneyTransferRepository moneyTransferRepository,
+                           TransferAdmissionController admissionController, TransferCompletions completions,
+                           long retryAfterSeconds, long maxWaitMillis) {
         this.eventBus = eventBus;
         this.moneyTransferRepository = moneyTransferRepository;
+        this.admissionController = admissionController;
+        this.completions = completions;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Remembers when the request was received, must be routed before the body is read.
+     */
+    public void received(RoutingContext ctx) {
+        ctx.put(RECEIVED_AT, System.nanoTime());
+        ctx.next();
     }
 
     public void transfer(RoutingContext ctx) {
-        Try.of(() -> Json.parse(ctx.getBodyAsString(), TransferMoney.class))
+        Try.of(() -> WireFormat.ofRequest(ctx).decode(ctx.getBody(), TransferMoney.class))
+                .map(transferMoney -> Optional.<Long>ofNullable(ctx.get(RECEIVED_AT))
+                        .map(transferMoney::receivedAt)
+                        .orElse(transferMoney))
                 .onFailure(e -> handleError(ctx, e, BAD_REQUEST.code()))
-                .andThen(eventBus::publish)
+                .forEach(transferMoney -> Try.of(() -> waitMillis(ctx))
+                        .onFailure(e -> handleError(ctx, e, BAD_REQUEST.code()))
+                        .forEach(waitMillis -> {
+                            if (!admissionController.tryAdmit(transferMoney.id)) {
+                                reject(ctx);
+                            } else if (waitMillis > 0) {
+                                publishAndAwait(ctx, transferMoney, waitMillis);
+                            } else {
+                                publish(ctx, transferMoney);
+                            }
+                        }));
+    }
+
+    private long waitMillis(RoutingContext ctx) {
+        return Optional.ofNullable(ctx.request().getParam("wait"))
+                .map(Long::parseLong)
+                .map(waitMillis -> Math.min(waitMillis, maxWaitMillis))
+                .orElse(0L);
+    }
+
+    private void publish(RoutingContext ctx, TransferMoney transferMoney) {
+        Try.run(() -> publishNow(transferMoney))
+                .onFailure(e -> admissionController.abandon(transferMoney.id))
+                .onFailure(e -> handleError(ctx, e, BAD_GATEWAY.code()))
+                .onSuccess(v -> accepted(ctx, transferMoney));
+    }
+
+    private void publishAndAwait(RoutingContext ctx, TransferMoney transferMoney, long waitMillis) {
+        var completion = completions.await(transferMoney.id);
+        Try.run(() -> publishNow(transferMoney))
+                .onFailure(e -> completions.cancel(transferMoney.id, completion))
+                .onFailure(e -> admissionController.abandon(transferMoney.id))
                 .onFailure(e -> handleError(ctx, e, BAD_GATEWAY.code()))
-                .forEach(transferMoney -> ctx.response()
-                        .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                        .setStatusCode(ACCEPTED.code())
-                        .end(new JsonObject().put("transferId", transferMoney.id).encodePrettily()));
+                .onSuccess(v -> {
+                    var vertx = ctx.vertx();
+                    var context = vertx.getOrCreateContext();
+                    var timerId = vertx.setTimer(waitMillis, id -> completions.cancel(transferMoney.id, completion));
+                    completion.whenComplete((event, e) -> context.runOnContext(ignored -> {
+                        vertx.cancelTimer(timerId);
+                        if (event != null) {
+                            respondWithOutcome(ctx, event);
+                        } else {
+                            accepted(ctx, transferMoney);
+                        }
+                    }));
+                });
+    }
+
+    private void publishNow(TransferMoney transferMoney) {
+        transferMoney.published();
+        eventBus.publish(transferMoney);
+    }
 
+    private void accepted(RoutingContext ctx, TransferMoney transferMoney) {
+        var format = WireFormat.ofResponse(ctx);
+        var body = new JsonObject().put("transferId", transferMoney.id);
+        ctx.response()
+                .putHeader(format.contentType.name, format.contentType.value)
+                .setStatusCode(ACCEPTED.code())
+                .end(format == WireFormat.JSON ? Buffer.buffer(body.encodePrettily()) : format.encode(body.getMap()));
+    }
+
+    private void reject(RoutingContext ctx) {
+        ctx.response()
+                .putHeader(HttpHeaderNames.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .setStatusCode(SERVICE_UNAVAILABLE.code())
+                .end();
     }
 
     public void transferStatus(RoutingContext ctx) {
         Optional.ofNullable(ctx.request().getParam("transferId"))
                 .flatMap(moneyTransferRepository::findById)
                 .ifPresentOrElse(
-                        event -> Match(event).of(
-                                Case($(instanceOf(MoneyTransferFailed.class)),
-                                        moneyTransferFailed -> run(() -> ctx.response()
-                                                .setStatusCode(PRECONDITION_FAILED.code())
-                                                .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                                                .end(Json.toString(moneyTransferFailed)))),
-                                Case($(instanceOf(MoneyTransferred.class)),
-                                        moneyTransferred -> run(() -> ctx.response()
-                                                .setStatusCode(OK.code())
-                                                .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                                                .end(Json.toString(moneyTransferred)))),
-                                Case($(), () -> run(() -> ctx.response()
-                                        .setStatusCode(INTERNAL_SERVER_ERROR.code())
-                                        .putHeader(JSON_CONTENT.name, JSON_CONTENT.value)
-                                        .end(Json.toString(event))))
-                        ),
+                        event -> respondWithOutcome(ctx, event),
                         () -> ctx.response()
                                 .setStatusCode(NO_CONTENT.code())
                                 .end());
     }
 
+    private void respondWithOutcome(RoutingContext ctx, Event event) {
+        var statusCode = Match(event).of(
+                Case($(instanceOf(MoneyTransferFailed.class)), PRECONDITION_FAILED.code()),
+                Case($(instanceOf(MoneyTransferred.class)), OK.code()),
+                Case($(), INTERNAL_SERVER_ERROR.code()));
+        var format = WireFormat.ofResponse(ctx);
+        ctx.response()
+                .setStatusCode(statusCode)
+                .putHeader(format.contentType.name, format.contentType.value)
+                .end(format.encode(event));
+    }
+
     private void handleError(RoutingContext ctx, Throwable e, int statusCode) {
         log.error("{} error", getClass().getSimpleName(), e);
         if (!ctx.response().ended()) {
@@ -0,0 +1,61 @@
+package net.soundvibe.web;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.*;
+import net.soundvibe.json.*;
+
+import java.util.Optional;
+import java.util.function.*;
+
+/**
+ * Encodings of request and response bodies. Requests are decoded according to their {@code Content-Type} and
+ * responses are encoded in the most preferred supported {@code Accept} type, falling back to the request encoding
+ * and to JSON when neither is given.
+ */
+public enum WireFormat {
+
+    JSON(HttpHeader.JSON_CONTENT, Json::toBuffer, Json::parse),
+    CBOR(HttpHeader.CBOR_CONTENT, Cbor::toBuffer, Cbor::parse);
+
+    public final HttpHeader contentType;
+    private final Function<Object, Buffer> encoder;
+    private final BiFunction<Buffer, Class<?>, ?> decoder;
+
+    WireFormat(HttpHeader contentType, Function<Object, Buffer> encoder, BiFunction<Buffer, Class<?>, ?> decoder) {
+        this.contentType = contentType;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    public Buffer encode(Object object) {
+        return encoder.apply(object);
+    }
+
+    public <T> T decode(Buffer buffer, Class<T> tClass) {
+        return tClass.cast(decoder.apply(buffer, tClass));
+    }
+
+    public static WireFormat ofRequest(RoutingContext ctx) {
+        return of(ctx.request().getHeader(HttpHeaders.CONTENT_TYPE)).orElse(JSON);
+    }
+
+    public static WireFormat ofResponse(RoutingContext ctx) {
+        return ctx.parsedHeaders().accept().stream()
+                .map(MIMEHeader::value)
+                .map(WireFormat::of)
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseGet(() -> ofRequest(ctx));
+    }
+
+    private static Optional<WireFormat> of(String mediaType) {
+        if (mediaType == null) return Optional.empty();
+        for (var format : values()) {
+            if (mediaType.regionMatches(true, 0, format.contentType.value, 0, format.contentType.value.length())) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
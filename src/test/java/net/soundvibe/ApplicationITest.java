@@ -1,10 +1,12 @@
 package net.soundvibe;
 
-import io.vertx.core.http.HttpServer;
-import io.vertx.core.json.JsonObject;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.*;
 import net.soundvibe.domain.account.Account;
 import net.soundvibe.domain.transfer.command.TransferMoney;
 import net.soundvibe.domain.transfer.event.MoneyTransferred;
+import net.soundvibe.json.Cbor;
 import net.soundvibe.json.Json;
 import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.*;
@@ -12,20 +14,22 @@ import org.junit.jupiter.api.*;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.*;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static java.net.http.HttpRequest.BodyPublishers.ofString;
 import static java.net.http.HttpResponse.BodySubscribers.*;
 import static java.net.http.HttpResponse.BodySubscribers.ofString;
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static net.soundvibe.web.HttpHeader.JSON_CONTENT;
+import static net.soundvibe.web.HttpHeader.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
 class ApplicationITest {
 
-    private static HttpServer httpServer;
+    private static Vertx vertx;
     private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.NORMAL)
             .build();
@@ -34,14 +38,22 @@ class ApplicationITest {
 
     @BeforeAll
     static void setUpAll() throws InterruptedException {
-        httpServer = Application.startHttpServer(PORT);
+        vertx = Application.startHttpServer(PORT, 2);
     }
 
     @AfterAll
     static void tearDown() {
-        httpServer.close();
+        vertx.close();
     }
 
+    @Test
+    void should_report_lag_of_every_subscriber_in_health_check() throws IOException, InterruptedException {
+        var response = HTTP_CLIENT.send(HttpRequest.newBuilder(SERVICE_ROOT.resolve("/health")).GET().build(), ri -> ofString(UTF_8));
+
+        assertEquals(OK.code(), response.statusCode());
+        assertTrue(response.body().startsWith("Healthy"), response.body());
+        assertTrue(response.body().contains("\nMoneyTransferRepository lag=0"), response.body());
+    }
 
     @Nested
     @DisplayName("/account")
@@ -153,6 +165,181 @@ class ApplicationITest {
             assertEquals(PRECONDITION_FAILED.code(), transferStatusCode(transferMoney.id));
         }
 
+        @Test
+        void should_respond_with_transfer_outcome_when_waiting() throws IOException, InterruptedException {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(10.11, "EUR"));
+
+            var request = HttpRequest.newBuilder(URI.create(transferUri + "?wait=5000"))
+                    .POST(ofString(Json.toString(transferMoney)))
+                    .setHeader(JSON_CONTENT.name, JSON_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request,
+                    ri -> mapping(ofString(UTF_8), json -> Json.parse(json, MoneyTransferred.class)));
+
+            assertEquals(OK.code(), response.statusCode());
+            assertEquals(MoneyTransferred.from(transferMoney), response.body());
+        }
+
+        @Test
+        void should_export_latency_histograms_of_every_transfer_stage() throws IOException, InterruptedException {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(10, "EUR"));
+            var request = HttpRequest.newBuilder(URI.create(transferUri + "?wait=5000"))
+                    .POST(ofString(Json.toString(transferMoney)))
+                    .setHeader(JSON_CONTENT.name, JSON_CONTENT.value)
+                    .build();
+            assertEquals(OK.code(), HTTP_CLIENT.send(request, ri -> discarding()).statusCode());
+            assertEquals(OK.code(), transferStatusCode(transferMoney.id));
+
+            var metrics = HTTP_CLIENT.send(HttpRequest.newBuilder(SERVICE_ROOT.resolve("/metrics")).GET().build(), ri -> ofString(UTF_8));
+
+            assertEquals(OK.code(), metrics.statusCode());
+            for (var stage : List.of("publish", "queue", "apply", "store", "read")) {
+                assertTrue(metrics.body().contains(String.format("transferStage_seconds_bucket{stage=\"%s\"", stage)), stage);
+            }
+        }
+
+        @Test
+        void should_respond_with_failed_transfer_when_waiting() throws IOException, InterruptedException {
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), "unknown", "unknown", Money.of(10.11, "EUR"));
+
+            var request = HttpRequest.newBuilder(URI.create(transferUri + "?wait=5000"))
+                    .POST(ofString(Json.toString(transferMoney)))
+                    .setHeader(JSON_CONTENT.name, JSON_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request, ri -> discarding());
+
+            assertEquals(PRECONDITION_FAILED.code(), response.statusCode());
+        }
+
+        @Test
+        void should_exchange_transfers_as_cbor() throws IOException, InterruptedException {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(10.11, "EUR"));
+
+            var request = HttpRequest.newBuilder(URI.create(transferUri + "?wait=5000"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(Cbor.toBuffer(transferMoney).getBytes()))
+                    .setHeader(CBOR_CONTENT.name, CBOR_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request,
+                    ri -> mapping(ofByteArray(), bytes -> Cbor.parse(Buffer.buffer(bytes), MoneyTransferred.class)));
+
+            assertEquals(OK.code(), response.statusCode());
+            assertEquals(Optional.of(CBOR_CONTENT.value), response.headers().firstValue(CBOR_CONTENT.name));
+            assertEquals(MoneyTransferred.from(transferMoney), response.body());
+            assertEquals(transferMoney.amountToTransfer, response.body().amount);
+
+            var statusRequest = HttpRequest.newBuilder(URI.create(transferUri + "/" + transferMoney.id))
+                    .GET()
+                    .setHeader("accept", CBOR_CONTENT.value)
+                    .build();
+            var statusResponse = HTTP_CLIENT.send(statusRequest,
+                    ri -> mapping(ofByteArray(), bytes -> Cbor.parse(Buffer.buffer(bytes), MoneyTransferred.class)));
+
+            assertEquals(OK.code(), statusResponse.statusCode());
+            assertEquals(MoneyTransferred.from(transferMoney), statusResponse.body());
+        }
+
+        @Test
+        void should_reply_with_json_when_accepted_for_cbor_request() throws IOException, InterruptedException {
+            var account = new Account(UUID.randomUUID().toString(), "Name", "Surname", Money.of(1000, "EUR"), null);
+
+            var request = HttpRequest.newBuilder(accountUri)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(Cbor.toBuffer(account).getBytes()))
+                    .setHeader(CBOR_CONTENT.name, CBOR_CONTENT.value)
+                    .setHeader("accept", "application/json")
+                    .build();
+            var response = HTTP_CLIENT.send(request,
+                    ri -> mapping(ofString(UTF_8), json -> Json.parse(json, Account.class)));
+
+            assertEquals(CREATED.code(), response.statusCode());
+            assertEquals(account, response.body());
+            assertEquals(account.balance(), response.body().balance());
+        }
+
+        @Test
+        void should_stream_events_of_account() throws Exception {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var request = HttpRequest.newBuilder(SERVICE_ROOT.resolve("/events?accountId=" + accountTo.id))
+                    .GET()
+                    .build();
+            var response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(OK.code(), response.statusCode());
+
+            transferMoney(accountFrom.id, accountTo.id, Money.of(5, "EUR"));
+            transferMoney(accountTo.id, accountFrom.id, Money.of(500, "EUR"));
+
+            var events = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> response.body()
+                    .filter(line -> line.startsWith("event: "))
+                    .limit(3)
+                    .collect(Collectors.toList()));
+            response.body().close();
+            assertEquals(List.of("event: AccountDebited", "event: MoneyTransferred", "event: MoneyTransferFailed"), events);
+        }
+
+        @Test
+        void should_accept_batch_of_transfers_as_json_array() throws IOException, InterruptedException {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var first = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(10, "EUR"));
+            var second = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(20, "EUR"));
+
+            var request = HttpRequest.newBuilder(SERVICE_ROOT.resolve("/transfers/batch"))
+                    .POST(ofString("[" + Json.toString(first) + ",{}," + Json.toString(second) + "]"))
+                    .setHeader(JSON_CONTENT.name, JSON_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request, ri -> mapping(ofString(UTF_8), JsonArray::new));
+
+            assertEquals(ACCEPTED.code(), response.statusCode());
+            assertEquals(3, response.body().size());
+            assertEquals(first.id, response.body().getJsonObject(0).getString("transferId"));
+            assertTrue(response.body().getJsonObject(1).containsKey("error"));
+            assertEquals(second.id, response.body().getJsonObject(2).getString("transferId"));
+            assertEquals(OK.code(), transferStatusCode(second.id));
+        }
+
+        @Test
+        void should_accept_batch_of_transfers_as_ndjson() throws IOException, InterruptedException {
+            var accountFrom = openAccount("From", "Surname", Money.of(1000, "EUR"));
+            var accountTo = openAccount("To", "LastName", Money.of(100, "EUR"));
+            var transfers = new ArrayList<TransferMoney>();
+            var body = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(1, "EUR"));
+                transfers.add(transferMoney);
+                body.append(Json.toString(transferMoney)).append('\n');
+            }
+
+            var request = HttpRequest.newBuilder(SERVICE_ROOT.resolve("/transfers/batch"))
+                    .POST(ofString(body.toString()))
+                    .setHeader(JSON_CONTENT.name, NDJSON_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request, ri -> ofString(UTF_8));
+
+            assertEquals(ACCEPTED.code(), response.statusCode());
+            var lines = response.body().split("\n");
+            assertEquals(transfers.size(), lines.length);
+            for (int i = 0; i < lines.length; i++) {
+                assertEquals(transfers.get(i).id, new JsonObject(lines[i]).getString("transferId"));
+            }
+        }
+
+        @Test
+        void should_reject_malformed_batch() throws IOException, InterruptedException {
+            var request = HttpRequest.newBuilder(SERVICE_ROOT.resolve("/transfers/batch"))
+                    .POST(ofString("[{\"accountIdFrom\":"))
+                    .setHeader(JSON_CONTENT.name, JSON_CONTENT.value)
+                    .build();
+            var response = HTTP_CLIENT.send(request, ri -> discarding());
+
+            assertEquals(BAD_REQUEST.code(), response.statusCode());
+        }
+
         private int transferStatusCode(String transferId) throws IOException, InterruptedException {
             var requestStatus = HttpRequest.newBuilder(URI.create(transferUri + "/" + transferId))
                     .GET()
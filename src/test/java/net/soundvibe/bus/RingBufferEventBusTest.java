@@ -0,0 +1,109 @@
+package net.soundvibe.bus;
+
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class RingBufferEventBusTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 20_000;
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void should_deliver_every_event_of_concurrent_producers_in_publishing_order(WaitStrategy waitStrategy) throws Exception {
+        var sut = new RingBufferEventBus(64, false, waitStrategy);
+        var received = new ArrayList<MoneyTransferred>();
+        var done = new CountDownLatch(1);
+        sut.observeEvents(MoneyTransferred.class).subscribe(received::add, e -> {}, done::countDown);
+
+        var executor = Executors.newFixedThreadPool(PRODUCERS);
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            var accountIdFrom = String.valueOf(producer);
+            executor.execute(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    sut.publish(new MoneyTransferred(String.valueOf(i), Money.of(1, "EUR"), accountIdFrom, "to"));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        sut.close();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, received.size());
+        var lastByProducer = new HashMap<String, Integer>();
+        for (var event : received) {
+            int sequence = Integer.parseInt(event.transferId);
+            var previous = lastByProducer.put(event.accountIdFrom, sequence);
+            assertEquals(previous == null ? 0 : previous + 1, sequence);
+        }
+    }
+
+    @Test
+    void should_route_commands_and_events_by_type_on_a_single_producer_ring() throws Exception {
+        var sut = new RingBufferEventBus(8, true, WaitStrategy.PARK);
+        var transferMoney = new TransferMoney("1", "from", "to", Money.of(1, "EUR"));
+        var failed = new MoneyTransferFailed("1", "cause");
+        var commandSubscriber = sut.observeCommands(TransferMoney.class).test();
+        var outcomeSubscriber = sut.observeEvents(TransferOutcome.class).test();
+
+        sut.publish(transferMoney);
+        sut.publish(failed);
+        sut.close();
+
+        commandSubscriber.await(5, TimeUnit.SECONDS);
+        commandSubscriber.assertResult(transferMoney);
+        outcomeSubscriber.await(5, TimeUnit.SECONDS);
+        outcomeSubscriber.assertResult(failed);
+    }
+
+    @Test
+    void should_publish_batches_smaller_and_larger_than_the_ring_in_order() throws Exception {
+        var sut = new RingBufferEventBus(8, false, WaitStrategy.PARK);
+        var eventsSubscriber = sut.observeEvents().test();
+        var batches = List.of(failures(0, 5), failures(5, 20), failures(25, 8));
+
+        batches.forEach(sut::publishEvents);
+        sut.close();
+
+        eventsSubscriber.await(5, TimeUnit.SECONDS);
+        eventsSubscriber.assertResult(failures(0, 33).toArray(new MoneyTransferFailed[0]));
+    }
+
+    @Test
+    void should_keep_delivering_after_a_subscriber_fails() throws Exception {
+        var sut = new RingBufferEventBus(8, false, WaitStrategy.YIELD);
+        var delivered = new CountDownLatch(2);
+        sut.observeEvents().subscribe(event -> {
+            delivered.countDown();
+            throw new IllegalStateException("boom");
+        }, e -> {});
+        var otherSubscriber = sut.observeEvents().test();
+
+        sut.publish(new MoneyTransferFailed("1", "cause"));
+        sut.publish(new MoneyTransferFailed("2", "cause"));
+        sut.close();
+
+        otherSubscriber.await(5, TimeUnit.SECONDS);
+        otherSubscriber.assertValueCount(2);
+        assertEquals(1, delivered.getCount());
+    }
+
+    private static List<MoneyTransferFailed> failures(int from, int count) {
+        var failures = new ArrayList<MoneyTransferFailed>();
+        for (int i = from; i < from + count; i++) {
+            failures.add(new MoneyTransferFailed(String.valueOf(i), "cause"));
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,55 @@
+package net.soundvibe.bus;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class RingBufferTest {
+
+    private static final int ROUNDS = 100;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void should_handle_every_accepted_message_when_closed_while_publishing(boolean singleProducer) throws Exception {
+        int producers = singleProducer ? 1 : 4;
+        var executor = Executors.newFixedThreadPool(producers);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                var handled = new AtomicLong();
+                var accepted = new AtomicLong();
+                var closed = new CountDownLatch(1);
+                var sut = new RingBuffer<Long>("test", 64, singleProducer, WaitStrategy.YIELD,
+                        message -> handled.incrementAndGet(), closed::countDown);
+
+                var workers = new ArrayList<Future<?>>();
+                for (int producer = 0; producer < producers; producer++) {
+                    workers.add(executor.submit(() -> {
+                        long message = 0L;
+                        while (message % 2 == 0 ? sut.publish(message) : sut.publishAll(List.of(message, message))) {
+                            accepted.addAndGet(message % 2 == 0 ? 1L : 2L);
+                            message++;
+                        }
+                    }));
+                }
+                Thread.sleep(1L);
+                sut.close();
+                for (var worker : workers) {
+                    worker.get(5, TimeUnit.SECONDS);
+                }
+
+                assertTrue(closed.await(5, TimeUnit.SECONDS));
+                assertEquals(accepted.get(), handled.get(), "round " + round);
+                assertFalse(sut.publish(-1L));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.soundvibe.bus;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.AccountCredited;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class RoutingEventBusTest {
+
+    private final RoutingEventBus sut = new RoutingEventBus();
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void should_route_events_to_subscribers_of_their_type_and_supertypes() {
+        var transferred = new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to");
+        var failed = new MoneyTransferFailed("2", "cause");
+        var credited = new AccountCredited(Money.of(1, "EUR"), new Account("from", "Foo", "Bar", Money.of(1, "EUR"), "1"));
+
+        var transferredSubscriber = sut.observeEvents(MoneyTransferred.class).test();
+        var outcomeSubscriber = sut.observeEvents(TransferOutcome.class).test();
+        var allSubscriber = sut.observeEvents().test();
+
+        sut.publish(credited);
+        sut.publish(transferred);
+        sut.publish(failed);
+
+        transferredSubscriber.assertValuesOnly(transferred);
+        outcomeSubscriber.assertValuesOnly(transferred, failed);
+        allSubscriber.assertValuesOnly(credited, transferred, failed);
+    }
+
+    @Test
+    void should_route_to_types_observed_after_messages_were_published() {
+        var transferred = new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to");
+        var eventSubscriber = sut.observeEvents(Event.class).test();
+        sut.publish(transferred);
+
+        var transferredSubscriber = sut.observeEvents(MoneyTransferred.class).test();
+        sut.publish(transferred);
+
+        eventSubscriber.assertValuesOnly(transferred, transferred);
+        transferredSubscriber.assertValuesOnly(transferred);
+    }
+
+    @Test
+    void should_route_commands_and_complete_every_channel_on_close() {
+        var transferMoney = new TransferMoney("1", "from", "to", Money.of(1, "EUR"));
+        var transferSubscriber = sut.observeCommands(TransferMoney.class).test();
+        var commandSubscriber = sut.observeCommands().test();
+
+        sut.publish(transferMoney);
+        sut.close();
+
+        transferSubscriber.assertResult(transferMoney);
+        commandSubscriber.assertResult(transferMoney);
+    }
+}
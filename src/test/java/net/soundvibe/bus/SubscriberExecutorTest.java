@@ -0,0 +1,139 @@
+package net.soundvibe.bus;
+
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SubscriberExecutorTest {
+
+    private final EventBus eventBus = new RoutingEventBus();
+    private final SubscriberExecutor sut = new SubscriberExecutor("test", 1, 8);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sut.shutdown();
+        eventBus.close();
+    }
+
+    @Test
+    void should_deliver_messages_in_order_off_the_publishing_thread_without_blocking_it() throws Exception {
+        var received = new CopyOnWriteArrayList<String>();
+        var threads = new CopyOnWriteArrayList<Thread>();
+        var published = new CountDownLatch(1);
+        var done = new CountDownLatch(5);
+        sut.decorate(eventBus).observeEvents(MoneyTransferFailed.class).subscribe(event -> {
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            threads.add(Thread.currentThread());
+            received.add(event.transferId);
+            done.countDown();
+        });
+
+        for (int i = 0; i < 5; i++) {
+            eventBus.publish(new MoneyTransferFailed(String.valueOf(i), "cause"));
+        }
+
+        // the subscriber is still blocked on the latch, so publishing did not wait for it
+        assertEquals(5, done.getCount());
+        published.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("0", "1", "2", "3", "4"), received);
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    void should_keep_at_most_capacity_messages_waiting_for_slow_subscriber_and_drop_oldest() throws Exception {
+        var received = new CopyOnWriteArrayList<String>();
+        var published = new CountDownLatch(1);
+        var done = new CountDownLatch(9);
+        sut.decorate(eventBus).observeEvents(MoneyTransferFailed.class).subscribe(event -> {
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            received.add(event.transferId);
+            done.countDown();
+        });
+
+        for (int i = 0; i < 100; i++) {
+            eventBus.publish(new MoneyTransferFailed(String.valueOf(i), "cause"));
+        }
+
+        // the one being delivered and the 8 newest waiting
+        assertEquals(9, sut.pendingMessages());
+        published.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("0", "92", "93", "94", "95", "96", "97", "98", "99"), received);
+        assertEquals(0, sut.pendingMessages());
+    }
+
+    @Test
+    void should_serve_at_most_max_concurrency_streams_at_a_time() throws Exception {
+        var executor = new SubscriberExecutor("concurrent", 2, 8);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var done = new CountDownLatch(4 * 5);
+        var decorated = executor.decorate(eventBus);
+        try {
+            for (int i = 0; i < 4; i++) {
+                decorated.observeEvents(MoneyTransferFailed.class).subscribe(event -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20L);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            for (int i = 0; i < 5; i++) {
+                eventBus.publish(new MoneyTransferFailed(String.valueOf(i), "cause"));
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(2, maxRunning.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_deliver_messages_on_virtual_threads_when_jdk_supports_them() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need JDK 21");
+        var thread = new CompletableFuture<Thread>();
+        sut.decorate(eventBus).observeEvents(MoneyTransferFailed.class).subscribe(event -> thread.complete(Thread.currentThread()));
+
+        eventBus.publish(new MoneyTransferFailed("1", "cause"));
+
+        var deliveringThread = thread.get(5, TimeUnit.SECONDS);
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(deliveringThread), deliveringThread::toString);
+    }
+
+    @Test
+    void should_run_at_most_max_concurrency_tasks_at_a_time() throws Exception {
+        var pool = Executors.newCachedThreadPool();
+        var boundedExecutor = new SubscriberExecutor.BoundedExecutor(pool, 2);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            boundedExecutor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, boundedExecutor.active.get());
+    }
+}
@@ -0,0 +1,145 @@
+package net.soundvibe.bus;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SubscribersSupervisorTest {
+
+    private final EventBus eventBus = new RoutingEventBus();
+    private final FailingSubscriber subscriber = new FailingSubscriber();
+    private final SubscribersSupervisor sut = new SubscribersSupervisor(List.of(subscriber), s -> false, 1, 16, 2);
+
+    @BeforeEach
+    void setUp() {
+        sut.subscribe(eventBus);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sut.unSubscribe();
+        eventBus.close();
+    }
+
+    @Test
+    void should_resubscribe_a_failed_subscriber_and_replay_the_events_it_missed() throws Exception {
+        publish("1", "poison", "2", "3", "4");
+
+        assertEquals(Map.of("FailingSubscriber", 3), sut.lags());
+        assertFalse(sut.isHealthy());
+
+        publish("5");
+        assertTrue(subscriber.received("5").await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "2", "3", "4", "5"), subscriber.received);
+        assertEquals(2, subscriber.subscriptions.get());
+        assertEquals(Map.of("FailingSubscriber", 0), sut.lags());
+        assertTrue(sut.isHealthy());
+    }
+
+    @Test
+    void should_not_resubscribe_a_subscriber_that_retries_on_its_own() throws Exception {
+        subscriber.retry = true;
+        sut.subscribe(eventBus);
+
+        publish("1", "poison", "2");
+        Thread.sleep(200L);
+        publish("3");
+
+        assertTrue(subscriber.received("3").await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "2", "3"), subscriber.received);
+        assertEquals(2, subscriber.subscriptions.get());
+    }
+
+    @Test
+    void should_be_unhealthy_while_a_subscriber_is_not_subscribed_even_without_lag() throws Exception {
+        publish("poison");
+
+        assertEquals(Map.of("FailingSubscriber", 0), sut.lags());
+        assertFalse(sut.isHealthy());
+
+        publish("1");
+        assertTrue(subscriber.received("1").await(5, TimeUnit.SECONDS));
+        assertTrue(sut.isHealthy());
+    }
+
+    @Test
+    void should_count_messages_not_yet_taken_by_a_slow_subscriber_as_lag() throws Exception {
+        var slowSubscriber = new SlowSubscriber();
+        var supervisor = new SubscribersSupervisor(List.of(slowSubscriber), s -> false, 1, 16, 2);
+        supervisor.subscribe(eventBus);
+        try {
+            for (int i = 0; i < 200; i++) {
+                publish(String.valueOf(i));
+            }
+
+            assertTrue(supervisor.lags().get("SlowSubscriber") > 2, supervisor.lags()::toString);
+            assertFalse(supervisor.isHealthy());
+
+            slowSubscriber.released.countDown();
+            assertTrue(slowSubscriber.received.await(5, TimeUnit.SECONDS));
+            assertEquals(Map.of("SlowSubscriber", 0), supervisor.lags());
+            assertTrue(supervisor.isHealthy());
+        } finally {
+            slowSubscriber.released.countDown();
+            supervisor.unSubscribe();
+        }
+    }
+
+    private void publish(String... transferIds) {
+        for (var transferId : transferIds) {
+            eventBus.publish(new MoneyTransferFailed(transferId, "cause"));
+        }
+    }
+
+    private static final class FailingSubscriber implements EventBusSubscriber {
+
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private final Map<String, CountDownLatch> awaited = new ConcurrentHashMap<>();
+        private final AtomicInteger subscriptions = new AtomicInteger();
+        private volatile boolean retry;
+
+        @Override
+        public Disposable subscribe(EventBus eventBus) {
+            subscriptions.incrementAndGet();
+            var events = eventBus.observeEvents(MoneyTransferFailed.class)
+                    .doOnNext(event -> {
+                        if ("poison".equals(event.transferId)) {
+                            throw new IllegalStateException("poison");
+                        }
+                    });
+            return (retry ? events.retry() : events)
+                    .subscribe(event -> {
+                        received.add(event.transferId);
+                        received(event.transferId).countDown();
+                    }, e -> {});
+        }
+
+        CountDownLatch received(String transferId) {
+            return awaited.computeIfAbsent(transferId, id -> new CountDownLatch(1));
+        }
+    }
+
+    private static final class SlowSubscriber implements EventBusSubscriber {
+
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch received = new CountDownLatch(200);
+
+        @Override
+        public Disposable subscribe(EventBus eventBus) {
+            return eventBus.observeEvents(MoneyTransferFailed.class)
+                    .observeOn(Schedulers.single())
+                    .subscribe(event -> {
+                        released.await();
+                        received.countDown();
+                    });
+        }
+    }
+}
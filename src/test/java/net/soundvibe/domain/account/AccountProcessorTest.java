@@ -3,8 +3,10 @@ package net.soundvibe.domain.account;
 import io.reactivex.disposables.Disposable;
 import net.soundvibe.bus.*;
 import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
 import net.soundvibe.domain.transfer.command.TransferMoney;
-import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import net.soundvibe.domain.transfer.event.*;
 import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.*;
 
@@ -64,35 +66,35 @@ class AccountProcessorTest {
     void should_calculate_correct_balance_when_transactions_are_duplicated() {
         var accountFrom = setupAccountWithBalance(Money.of(100, "EUR"));
         var accountTo = setupAccountWithBalance(Money.of(0, "EUR"));
+        var accountOther = setupAccountWithBalance(Money.of(0, "EUR"));
 
-        var amountToTransfer = Money.of(100, "EUR");
+        var amountToTransfer = Money.of(50, "EUR");
 
         var creditedTestSubscriber = eventBus.observeEvents(AccountCredited.class).test();
-        var debitedTestSubscriber = eventBus.observeEvents(AccountDebited.class).test();
+        var transferredTestSubscriber = eventBus.observeEvents(MoneyTransferred.class).test();
 
         var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, amountToTransfer);
+        var otherTransferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountOther.id, Money.of(10, "EUR"));
 
         eventBus.publish(transferMoney);
+        eventBus.publish(otherTransferMoney);
         eventBus.publish(transferMoney);
 
-        var expectedCredited = new AccountCredited(amountToTransfer, accountFrom);
-        var expectedDebited = new AccountDebited(amountToTransfer, accountTo);
-
-        creditedTestSubscriber
-                .awaitCount(2)
+        transferredTestSubscriber
+                .awaitCount(3)
                 .assertNoErrors()
-                .assertValues(expectedCredited, expectedCredited)
+                .assertValues(MoneyTransferred.from(transferMoney), MoneyTransferred.from(otherTransferMoney),
+                        MoneyTransferred.from(transferMoney))
                 .dispose();
 
-        debitedTestSubscriber
-                .awaitCount(2)
+        creditedTestSubscriber
                 .assertNoErrors()
-                .assertValues(expectedDebited, expectedDebited)
+                .assertValueCount(2)
                 .dispose();
 
-        assertAccountBalance(Money.of(0, "EUR"), accountFrom.id);
+        assertAccountBalance(Money.of(40, "EUR"), accountFrom.id);
         assertAccountBalance(amountToTransfer, accountTo.id);
-
+        assertAccountBalance(Money.of(10, "EUR"), accountOther.id);
     }
 
     @Test
@@ -148,8 +150,51 @@ class AccountProcessorTest {
                 .dispose();
     }
 
+    @Test
+    void should_publish_the_same_events_in_the_same_order_as_applying_transfers_one_by_one() throws Exception {
+        var batchedRepository = new AccountRepository();
+        var sequentialRepository = new AccountRepository();
+        var accounts = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            var account = new Account(UUID.randomUUID().toString(), "Foo", "Bar", Money.of(30, "EUR"), null);
+            batchedRepository.open(account);
+            sequentialRepository.open(account);
+            accounts.add(account.id);
+        }
+        var transfers = new ArrayList<TransferMoney>();
+        for (int i = 0; i < 100; i++) {
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accounts.get(i % 4), accounts.get((i + 1 + i / 4) % 4),
+                    Money.of(i % 7 + 1, "EUR"));
+            transfers.add(transferMoney);
+            if (i % 10 == 0) {
+                transfers.add(transferMoney);
+            }
+        }
+        var sequentialLedger = new Ledger(sequentialRepository, new TransferIdempotencyIndex());
+        var expected = new ArrayList<Event>();
+        transfers.forEach(transferMoney -> expected.addAll(sequentialLedger.transfer(transferMoney)));
+
+        var batchedEventBus = new RxEventBus();
+        var batchedProcessor = new AccountProcessor(batchedRepository, new TransferIdempotencyIndex(), 8, 1L);
+        var processorSubscription = batchedProcessor.subscribe(batchedEventBus);
+        var eventsTestSubscriber = batchedEventBus.observeEvents().test();
+        transfers.forEach(batchedEventBus::publish);
+
+        eventsTestSubscriber
+                .awaitCount(expected.size())
+                .assertNoErrors()
+                .assertValueSequence(expected)
+                .dispose();
+        processorSubscription.dispose();
+        batchedEventBus.close();
+        for (var accountId : accounts) {
+            assertEquals(sequentialRepository.findById(accountId).map(Account::balance),
+                    batchedRepository.findById(accountId).map(Account::balance));
+        }
+    }
+
     private void assertAccountBalance(Money expected, String accountId) {
-        assertEquals(Optional.of(expected), accountRepository.findById(accountId).map(account -> account.balance));
+        assertEquals(Optional.of(expected), accountRepository.findById(accountId).map(Account::balance));
     }
 
     private Account setupAccountWithBalance(Money initialBalance) {
@@ -0,0 +1,238 @@
+package net.soundvibe.domain.account;
+
+import net.soundvibe.bus.RxEventBus;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import net.soundvibe.journal.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.Monetary;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class LedgerTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 20_000;
+    private static final long INITIAL_BALANCE = 1_000;
+
+    private final AccountRepository accountRepository = new AccountRepository();
+    private final Ledger sut = new Ledger(accountRepository, new TransferIdempotencyIndex());
+
+    @Test
+    void should_conserve_money_when_many_threads_transfer_between_overlapping_accounts() throws Exception {
+        assertMoneyConserved(accountRepository, sut, List.of());
+    }
+
+    @Test
+    void should_conserve_money_when_many_threads_transfer_to_and_from_hot_accounts() throws Exception {
+        var hotAccountIds = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        var hotAccountRepository = new AccountRepository(Set.copyOf(hotAccountIds), 4);
+
+        assertMoneyConserved(hotAccountRepository, new Ledger(hotAccountRepository, new TransferIdempotencyIndex()), hotAccountIds);
+    }
+
+    private static void assertMoneyConserved(AccountRepository accountRepository, Ledger ledger, List<String> hotAccountIds) throws Exception {
+        var accountIds = new ArrayList<String>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var id = i < hotAccountIds.size() ? hotAccountIds.get(i) : UUID.randomUUID().toString();
+            accountIds.add(accountRepository.open(new Account(id, "Name", "Surname", Money.of(INITIAL_BALANCE, "EUR"), null)).id);
+        }
+        var expectedBalances = new ConcurrentHashMap<String, AtomicLong>();
+        accountIds.forEach(id -> expectedBalances.put(id, new AtomicLong(INITIAL_BALANCE * 100)));
+
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var start = new CountDownLatch(1);
+        var workers = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountIds.get(from), accountIds.get(to),
+                            Money.of(1 + random.nextInt(50), "EUR"));
+                    var events = ledger.transfer(transferMoney);
+                    if (events.get(events.size() - 1) instanceof MoneyTransferred) {
+                        expectedBalances.get(transferMoney.accountIdFrom).addAndGet(-transferMoney.amountInMinorUnits());
+                        expectedBalances.get(transferMoney.accountIdTo).addAndGet(transferMoney.amountInMinorUnits());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (var worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        var total = 0L;
+        for (var id : accountIds) {
+            var account = accountRepository.findById(id).orElseThrow();
+            assertTrue(account.balanceInMinorUnits() >= 0, account::toString);
+            assertEquals(expectedBalances.get(id).get(), account.balanceInMinorUnits(), account::toString);
+            total += account.balanceInMinorUnits();
+        }
+        assertEquals(ACCOUNTS * INITIAL_BALANCE * 100, total);
+    }
+
+    @Test
+    void should_keep_balance_when_transferring_to_same_account() {
+        var account = accountRepository.open(account(100));
+
+        var events = sut.transfer(new TransferMoney(UUID.randomUUID().toString(), account.id, account.id, Money.of(60, "EUR")));
+
+        assertTrue(events.get(events.size() - 1) instanceof MoneyTransferred);
+        assertEquals(Money.of(100, "EUR"), accountRepository.findById(account.id).map(Account::balance).orElseThrow());
+    }
+
+    @Test
+    void should_refund_source_account_when_destination_cannot_be_debited() {
+        var accountFrom = accountRepository.open(account(100));
+        var accountTo = accountRepository.open(new Account(UUID.randomUUID().toString(), "To", "Surname",
+                Money.ofMinor(Monetary.getCurrency("EUR"), Long.MAX_VALUE), null));
+
+        var events = sut.transfer(new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(60, "EUR")));
+
+        assertTrue(events.get(events.size() - 1) instanceof MoneyTransferFailed);
+        var refunded = accountRepository.findById(accountFrom.id).orElseThrow();
+        assertEquals(Money.of(100, "EUR"), refunded.balance());
+        assertNull(refunded.transactionId);
+        assertTrue(events.contains(new AccountDebited(Money.of(60, "EUR"), refunded)), events::toString);
+    }
+
+    @Test
+    void should_conserve_money_when_replaying_events_of_concurrently_refunded_transfers() throws Exception {
+        var hotAccountId = UUID.randomUUID().toString();
+        var hotAccountRepository = new AccountRepository(Set.of(hotAccountId), 4);
+        var ledger = new Ledger(hotAccountRepository, new TransferIdempotencyIndex());
+        var sources = List.of(
+                hotAccountRepository.open(new Account(hotAccountId, "Hot", "Surname", Money.of(INITIAL_BALANCE, "EUR"), null)),
+                hotAccountRepository.open(account(INITIAL_BALANCE)));
+        var destinations = List.of(hotAccountRepository.open(account(0)), hotAccountRepository.open(account(0)));
+        var overflowing = hotAccountRepository.open(new Account(UUID.randomUUID().toString(), "To", "Surname",
+                Money.ofMinor(Monetary.getCurrency("EUR"), Long.MAX_VALUE), null));
+
+        var events = new ConcurrentLinkedQueue<Event>();
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var workers = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD / 10; i++) {
+                    var from = sources.get(random.nextInt(sources.size()));
+                    var to = random.nextBoolean() ? overflowing : destinations.get(random.nextInt(destinations.size()));
+                    events.addAll(ledger.transfer(new TransferMoney(UUID.randomUUID().toString(), from.id, to.id, Money.of(1, "EUR"))));
+                }
+                return null;
+            }));
+        }
+        for (var worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        var replayed = new AccountRepository(Set.of(hotAccountId), 4);
+        for (var account : List.of(sources.get(0), sources.get(1), destinations.get(0), destinations.get(1))) {
+            replayed.replay(new AccountOpened(account));
+        }
+        events.forEach(replayed::replay);
+
+        var total = 0L;
+        for (var account : List.of(sources.get(0), sources.get(1), destinations.get(0), destinations.get(1))) {
+            var replayedAccount = replayed.findById(account.id).orElseThrow();
+            assertEquals(hotAccountRepository.findById(account.id).orElseThrow().balance(), replayedAccount.balance(), account.id);
+            total += replayedAccount.balanceInMinorUnits();
+        }
+        assertEquals(2 * INITIAL_BALANCE * 100, total);
+    }
+
+    @Test
+    void should_fail_and_refund_transfers_to_hot_account_closed_meanwhile() throws Exception {
+        var hotAccountId = UUID.randomUUID().toString();
+        var hotAccountRepository = new AccountRepository(Set.of(hotAccountId), 4);
+        var ledger = new Ledger(hotAccountRepository, new TransferIdempotencyIndex());
+        hotAccountRepository.open(new Account(hotAccountId, "Hot", "Surname", Money.of(0, "EUR"), null));
+        var sources = new ArrayList<Account>();
+        for (int i = 0; i < THREADS; i++) {
+            sources.add(hotAccountRepository.open(account(INITIAL_BALANCE)));
+        }
+
+        var transferred = new AtomicLong();
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var workers = new ArrayList<Future<?>>();
+        for (var source : sources) {
+            workers.add(executor.submit(() -> {
+                while (true) {
+                    var events = ledger.transfer(new TransferMoney(UUID.randomUUID().toString(), source.id, hotAccountId, Money.of(0.01, "EUR")));
+                    if (events.get(events.size() - 1) instanceof MoneyTransferFailed) return null;
+                    transferred.incrementAndGet();
+                }
+            }));
+        }
+        while (transferred.get() < 1_000) {
+            Thread.yield();
+        }
+        var closed = hotAccountRepository.close(hotAccountId);
+        for (var worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        var remaining = sources.stream()
+                .mapToLong(source -> hotAccountRepository.findById(source.id).orElseThrow().balanceInMinorUnits())
+                .sum();
+        assertEquals(transferred.get(), closed.balanceInMinorUnits());
+        assertEquals(THREADS * INITIAL_BALANCE * 100, remaining + closed.balanceInMinorUnits());
+    }
+
+    @Test
+    void should_not_apply_transfer_again_when_retried_after_restart(@TempDir Path directory) throws Exception {
+        var accountFrom = accountRepository.open(account(100));
+        var accountTo = accountRepository.open(account(0));
+        var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(60, "EUR"));
+        List<Event> events;
+        try (var eventBus = new RxEventBus(); var journal = new EventJournal(directory, 64 * 1024, 1L, 16)) {
+            var disposable = journal.subscribe(eventBus);
+            eventBus.publish(new AccountOpened(accountFrom));
+            eventBus.publish(new AccountOpened(accountTo));
+            events = sut.transfer(transferMoney);
+            events.forEach(eventBus::publish);
+            var deadline = System.currentTimeMillis() + 10_000L;
+            while (journal.lastSequence() < 2 + events.size() && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            disposable.dispose();
+        }
+
+        var restartedRepository = new AccountRepository();
+        var restartedIndex = new TransferIdempotencyIndex();
+        JournalReader.replay(directory, 0L, 2, event -> {
+            restartedRepository.replay(event);
+            restartedIndex.replay(event);
+        });
+        var retried = new Ledger(restartedRepository, restartedIndex).transfer(transferMoney);
+
+        assertTrue(events.get(events.size() - 1) instanceof MoneyTransferred, events::toString);
+        assertEquals(List.of(events.get(events.size() - 1)), retried);
+        assertEquals(Money.of(40, "EUR"), restartedRepository.findById(accountFrom.id).map(Account::balance).orElseThrow());
+        assertEquals(Money.of(60, "EUR"), restartedRepository.findById(accountTo.id).map(Account::balance).orElseThrow());
+    }
+
+    private static Account account(long balance) {
+        return new Account(UUID.randomUUID().toString(), "Name", "Surname", Money.of(balance, "EUR"), null);
+    }
+}
@@ -0,0 +1,178 @@
+package net.soundvibe.domain.account;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.TransferIdempotencyIndex;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class PartitionedAccountProcessorTest {
+
+    private static final int LANES = 4;
+
+    private final AccountRepository accountRepository = new AccountRepository();
+    private final PartitionedAccountProcessor sut = new PartitionedAccountProcessor(accountRepository, LANES);
+    private final EventBus eventBus = new RxEventBus();
+
+    private Disposable disposable;
+
+    @BeforeEach
+    void setUp() {
+        disposable = sut.subscribe(eventBus);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        disposable.dispose();
+        eventBus.close();
+    }
+
+    @Test
+    void should_transfer_money_between_accounts_on_different_lanes() {
+        var accountFrom = setupAccountWithBalance(Money.of(100, "EUR"));
+        var accountTo = setupAccountWithBalance(Money.of(0, "EUR"));
+        while (sut.laneOf(accountTo.id) == sut.laneOf(accountFrom.id)) {
+            accountTo = setupAccountWithBalance(Money.of(0, "EUR"));
+        }
+
+        var amountToTransfer = Money.of(100, "EUR");
+        var creditedTestSubscriber = eventBus.observeEvents(AccountCredited.class).test();
+        var debitedTestSubscriber = eventBus.observeEvents(AccountDebited.class).test();
+
+        eventBus.publish(new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, amountToTransfer));
+
+        creditedTestSubscriber
+                .awaitCount(1)
+                .assertNoErrors()
+                .assertValue(new AccountCredited(amountToTransfer, accountFrom))
+                .dispose();
+
+        debitedTestSubscriber
+                .awaitCount(1)
+                .assertNoErrors()
+                .assertValue(new AccountDebited(amountToTransfer, accountTo))
+                .dispose();
+
+        assertAccountBalance(Money.of(0, "EUR"), accountFrom.id);
+        assertAccountBalance(amountToTransfer, accountTo.id);
+    }
+
+    @Test
+    void should_fail_the_transfer_when_insufficient_balance() {
+        var accountFrom = setupAccountWithBalance(Money.of(10, "EUR"));
+        var accountTo = setupAccountWithBalance(Money.of(0, "EUR"));
+
+        var transferFailedTestSubscriber = eventBus.observeEvents(MoneyTransferFailed.class).test();
+
+        eventBus.publish(new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(10.01, "EUR")));
+
+        transferFailedTestSubscriber
+                .awaitCount(1)
+                .assertNoErrors()
+                .assertValueCount(1)
+                .dispose();
+
+        assertAccountBalance(Money.of(10, "EUR"), accountFrom.id);
+        assertAccountBalance(Money.of(0, "EUR"), accountTo.id);
+    }
+
+    @Test
+    void should_conserve_total_balance_when_transferring_concurrently_across_lanes() {
+        var accounts = IntStream.range(0, 32)
+                .mapToObj(i -> setupAccountWithBalance(Money.of(100, "EUR")))
+                .collect(Collectors.toList());
+        var random = new Random(42);
+        int transfers = 5_000;
+
+        var outcomes = eventBus.observeEvents()
+                .filter(event -> event instanceof MoneyTransferred || event instanceof MoneyTransferFailed)
+                .test();
+
+        IntStream.range(0, transfers).parallel().forEach(i -> {
+            Account from, to;
+            synchronized (random) {
+                int fromIndex = random.nextInt(accounts.size());
+                from = accounts.get(fromIndex);
+                to = accounts.get((fromIndex + 1 + random.nextInt(accounts.size() - 1)) % accounts.size());
+            }
+            eventBus.publish(new TransferMoney(UUID.randomUUID().toString(), from.id, to.id, Money.of(7, "EUR")));
+        });
+
+        outcomes.awaitCount(transfers)
+                .assertNoErrors()
+                .assertValueCount(transfers)
+                .dispose();
+
+        var total = accounts.stream()
+                .map(account -> accountRepository.findById(account.id).orElseThrow().balance())
+                .reduce(Money.of(0, "EUR"), Money::add);
+        assertEquals(Money.of(100 * accounts.size(), "EUR"), total);
+        assertTrue(accounts.stream()
+                .map(account -> accountRepository.findById(account.id).orElseThrow().balance())
+                .noneMatch(Money::isNegative));
+    }
+
+    @Test
+    void should_apply_transfers_of_an_account_in_publishing_order_across_lanes() {
+        int pairs = 200;
+        var outcomes = eventBus.observeEvents()
+                .filter(event -> event instanceof MoneyTransferred || event instanceof MoneyTransferFailed)
+                .test();
+
+        for (int i = 0; i < pairs; i++) {
+            var payer = setupAccountWithBalance(Money.of(10, "EUR"));
+            while (sut.laneOf(payer.id) == LANES - 1) {
+                payer = setupAccountWithBalance(Money.of(10, "EUR"));
+            }
+            var account = setupAccountWithBalance(Money.of(0, "EUR"));
+            while (sut.laneOf(account.id) <= sut.laneOf(payer.id)) {
+                account = setupAccountWithBalance(Money.of(0, "EUR"));
+            }
+            var payee = setupAccountWithBalance(Money.of(0, "EUR"));
+            while (sut.laneOf(payee.id) != sut.laneOf(account.id)) {
+                payee = setupAccountWithBalance(Money.of(0, "EUR"));
+            }
+            // the first transfer is handed off to the account's lane, the second one runs there directly
+            eventBus.publish(new TransferMoney(UUID.randomUUID().toString(), payer.id, account.id, Money.of(10, "EUR")));
+            eventBus.publish(new TransferMoney(UUID.randomUUID().toString(), account.id, payee.id, Money.of(10, "EUR")));
+        }
+
+        outcomes.awaitCount(2 * pairs)
+                .assertNoErrors()
+                .assertValueCount(2 * pairs)
+                .assertNever(event -> event instanceof MoneyTransferFailed)
+                .dispose();
+    }
+
+    @Test
+    void should_reject_non_positive_lane_count() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedAccountProcessor(accountRepository, 0));
+    }
+
+    @Test
+    void should_reject_non_positive_max_batch_size() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedAccountProcessor(accountRepository, LANES,
+                new TransferIdempotencyIndex(), 0));
+    }
+
+    private void assertAccountBalance(Money expected, String accountId) {
+        assertEquals(Optional.of(expected), accountRepository.findById(accountId).map(Account::balance));
+    }
+
+    private Account setupAccountWithBalance(Money initialBalance) {
+        var account = new Account(UUID.randomUUID().toString(), "Foo" + ++index, "Bar" + index, initialBalance, null);
+        return accountRepository.open(account);
+    }
+
+    private int index = 0;
+}
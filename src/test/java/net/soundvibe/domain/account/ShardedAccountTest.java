@@ -0,0 +1,115 @@
+package net.soundvibe.domain.account;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ShardedAccountTest {
+
+    private static final int THREADS = 4;
+
+    private final ShardedAccount sut = new ShardedAccount(
+            new Account(UUID.randomUUID().toString(), "Merchant", "Settlement", Money.of(0, "EUR"), null), THREADS);
+
+    @Test
+    void should_borrow_from_other_shards_when_home_shard_runs_short() throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            var deposits = new ArrayList<Future<Account>>();
+            for (int i = 0; i < THREADS; i++) {
+                deposits.add(executor.submit(() -> sut.deposit(100, UUID.randomUUID().toString())));
+            }
+            for (var deposit : deposits) {
+                assertNotNull(deposit.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        var withdrawn = sut.withdraw(350, UUID.randomUUID().toString());
+
+        assertNotNull(withdrawn);
+        assertEquals(50, withdrawn.balanceInMinorUnits());
+        assertEquals(THREADS + 1, withdrawn.version());
+    }
+
+    @Test
+    void should_not_withdraw_more_than_sum_of_shards() {
+        sut.deposit(100, UUID.randomUUID().toString());
+
+        assertNull(sut.withdraw(101, UUID.randomUUID().toString()));
+        assertEquals(100, sut.snapshot().balanceInMinorUnits());
+        assertEquals(1, sut.snapshot().version());
+    }
+
+    @Test
+    void should_include_every_update_in_snapshot_with_highest_version() throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var snapshots = new ConcurrentLinkedQueue<Account>();
+        try {
+            var workers = new ArrayList<Future<?>>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        snapshots.add(sut.deposit(2, UUID.randomUUID().toString()));
+                        var withdrawn = sut.withdraw(1, UUID.randomUUID().toString());
+                        if (withdrawn != null) {
+                            snapshots.add(withdrawn);
+                        }
+                    }
+                }));
+            }
+            for (var worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        var latest = snapshots.stream().max(Comparator.comparingLong(Account::version)).orElseThrow();
+        assertEquals(sut.snapshot().balanceInMinorUnits(), latest.balanceInMinorUnits());
+        assertEquals(sut.snapshot().version(), latest.version());
+    }
+
+    @Test
+    void should_not_deposit_to_closed_account() {
+        sut.close();
+
+        assertNull(sut.deposit(100, UUID.randomUUID().toString()));
+        assertNull(sut.withdraw(0, UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void should_include_every_successful_update_in_closed_account() throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var deposited = new ConcurrentLinkedQueue<Account>();
+        try {
+            var workers = new ArrayList<Future<?>>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    Account account;
+                    while ((account = sut.deposit(1, UUID.randomUUID().toString())) != null) {
+                        deposited.add(account);
+                    }
+                }));
+            }
+            while (deposited.size() < 1_000) {
+                Thread.yield();
+            }
+            var closed = sut.close();
+            for (var worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(deposited.size(), closed.balanceInMinorUnits());
+            assertEquals(deposited.size(), closed.version());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.soundvibe.domain.account;
+
+import ch.qos.logback.classic.*;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.soundvibe.domain.account.event.AccountCredited;
+import net.soundvibe.domain.transfer.event.MoneyTransferred;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TransferEventLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(TransferEventLogTest.class.getName() + "." + UUID.randomUUID());
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final TransferEventLog sut = new TransferEventLog("test", 2, logger, nanoTime::get);
+
+    @BeforeEach
+    void setUp() {
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        appender.start();
+    }
+
+    @Test
+    void should_log_at_most_max_per_second_and_report_skipped_events() {
+        for (int i = 0; i < 5; i++) {
+            sut.published(transferred());
+        }
+        assertEquals(2, appender.list.size());
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        sut.published(transferred());
+
+        assertEquals(3, appender.list.size());
+        assertTrue(appender.list.get(2).getFormattedMessage().endsWith("skipped=3"));
+    }
+
+    @Test
+    void should_log_every_event_at_debug() {
+        logger.setLevel(Level.DEBUG);
+
+        for (int i = 0; i < 5; i++) {
+            sut.published(transferred());
+        }
+
+        assertEquals(5, appender.list.size());
+    }
+
+    @Test
+    void should_not_log_account_holder_names_or_balances() {
+        var account = new Account(UUID.randomUUID().toString(), "Holder", "Surname", Money.of(12345, "EUR"), "transfer-1");
+
+        var line = TransferEventLog.describe(new AccountCredited(Money.of(7, "EUR"), account));
+
+        assertEquals(String.format("event=AccountCredited transferId=transfer-1 account=%s amount=EUR 7", account.id), line);
+    }
+
+    private static MoneyTransferred transferred() {
+        return new MoneyTransferred(UUID.randomUUID().toString(), Money.of(1, "EUR"), "from", "to");
+    }
+}
@@ -2,10 +2,11 @@ package net.soundvibe.domain.account.repository;
 
 import net.soundvibe.domain.account.AccountRepository;
 import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
 import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.*;
 
-import java.util.UUID;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,4 +46,79 @@ class AccountRepositoryTest {
         assertEquals(expected, actual);
         assertNull(actual2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_update_account_at_expected_version_only() {
+        var opened = sut.open(new Account(UUID.randomUUID().toString(), "Linas", "Naginionis", Money.parse("EUR 10.59"), TRAN_ID));
+        var credited = opened.credit(100, UUID.randomUUID().toString());
+        var debited = opened.debit(100, UUID.randomUUID().toString());
+
+        assertTrue(sut.compareAndSet(opened, credited));
+        assertFalse(sut.compareAndSet(opened, debited));
+        assertEquals(opened.version() + 1, sut.findById(opened.id).orElseThrow().version());
+        assertEquals(Money.parse("EUR 9.59"), sut.findById(opened.id).orElseThrow().balance());
+    }
+
+    @Test
+    void should_not_update_closed_account() {
+        var opened = sut.open(new Account(UUID.randomUUID().toString(), "Linas", "Naginionis", Money.parse("EUR 10.59"), TRAN_ID));
+        sut.close(opened.id);
+
+        assertFalse(sut.compareAndSet(opened, opened.credit(100, UUID.randomUUID().toString())));
+        assertTrue(sut.findById(opened.id).isEmpty());
+    }
+
+    @Test
+    void should_keep_latest_version_when_replaying_out_of_order() {
+        var opened = new Account(UUID.randomUUID().toString(), "Linas", "Naginionis", Money.parse("EUR 10.00"), TRAN_ID);
+        var first = opened.debit(100, UUID.randomUUID().toString());
+        var second = first.debit(100, UUID.randomUUID().toString());
+
+        sut.replay(new AccountOpened(opened));
+        sut.replay(new AccountDebited(Money.parse("EUR 1.00"), second));
+        sut.replay(new AccountDebited(Money.parse("EUR 1.00"), first));
+
+        assertEquals(Money.parse("EUR 12.00"), sut.findById(opened.id).orElseThrow().balance());
+        assertEquals(2, sut.findById(opened.id).orElseThrow().version());
+    }
+
+    @Test
+    void should_not_bring_back_closed_account_when_replaying_events_journaled_after_close() {
+        var opened = new Account(UUID.randomUUID().toString(), "Linas", "Naginionis", Money.parse("EUR 10.00"), TRAN_ID);
+        var debited = opened.debit(100, UUID.randomUUID().toString());
+
+        sut.replay(new AccountOpened(opened));
+        sut.replay(new AccountClosed(opened));
+        sut.replay(new AccountDebited(Money.parse("EUR 1.00"), debited));
+        sut.replay(new AccountCredited(Money.parse("EUR 1.00"), debited.credit(100, UUID.randomUUID().toString())));
+
+        assertTrue(sut.findById(opened.id).isEmpty());
+    }
+
+    @Test
+    void should_not_bring_back_closed_hot_account_when_replaying_events_journaled_after_close() {
+        var hotAccountId = UUID.randomUUID().toString();
+        var hotAccounts = new AccountRepository(Set.of(hotAccountId), 4);
+        var opened = new Account(hotAccountId, "Merchant", "Settlement", Money.parse("EUR 10.00"), null);
+
+        hotAccounts.replay(new AccountOpened(opened));
+        hotAccounts.replay(new AccountClosed(opened));
+        hotAccounts.replay(new AccountDebited(Money.parse("EUR 1.00"), opened.debit(100, UUID.randomUUID().toString())));
+
+        assertTrue(hotAccounts.findById(hotAccountId).isEmpty());
+    }
+
+    @Test
+    void should_aggregate_shards_of_hot_account() {
+        var hotAccountId = UUID.randomUUID().toString();
+        var hotAccounts = new AccountRepository(Set.of(hotAccountId), 4);
+        var opened = hotAccounts.open(new Account(hotAccountId, "Merchant", "Settlement", Money.parse("EUR 10.00"), null));
+
+        assertTrue(hotAccounts.isHot(opened.id));
+        assertEquals(Money.parse("EUR 10.00"), hotAccounts.findById(hotAccountId).orElseThrow().balance());
+        assertThrows(IllegalArgumentException.class, () -> hotAccounts.compareAndSet(opened, opened.debit(1, TRAN_ID + "1")));
+        assertThrows(IllegalStateException.class, () -> hotAccounts.open(opened));
+        assertEquals(opened, hotAccounts.close(hotAccountId));
+        assertTrue(hotAccounts.findById(hotAccountId).isEmpty());
+    }
+}
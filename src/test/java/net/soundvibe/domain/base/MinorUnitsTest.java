@@ -0,0 +1,46 @@
+package net.soundvibe.domain.base;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import javax.money.Monetary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class MinorUnitsTest {
+
+    @Test
+    void should_convert_money_to_minor_units_and_back() {
+        var money = Money.of(10.59, "EUR");
+        var minorUnits = MinorUnits.of(money);
+        assertEquals(1059L, minorUnits);
+        assertEquals(money, MinorUnits.toMoney(minorUnits, MinorUnits.currencyIndex(money.getCurrency())));
+    }
+
+    @Test
+    void should_respect_currency_fraction_digits() {
+        assertEquals(1500L, MinorUnits.of(Money.of(1500, "JPY")));
+        assertEquals(1500L, MinorUnits.of(Money.of(1.5, "BHD")));
+    }
+
+    @Test
+    void should_register_currency_once() {
+        var usd = Monetary.getCurrency("USD");
+        var index = MinorUnits.currencyIndex(usd);
+        assertEquals(index, MinorUnits.currencyIndex(usd));
+        assertEquals(usd, MinorUnits.currency(index));
+    }
+
+    @Test
+    void should_fail_when_amount_has_more_fraction_digits_than_currency() {
+        assertThrows(ArithmeticException.class, () -> MinorUnits.of(Money.of(10.591, "EUR")));
+    }
+
+    @Test
+    void should_detect_overflow() {
+        assertThrows(ArithmeticException.class, () -> MinorUnits.add(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.subtract(Long.MIN_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.of(Money.of(Long.MAX_VALUE, "EUR")));
+    }
+}
@@ -4,11 +4,14 @@ import io.reactivex.disposables.Disposable;
 import net.soundvibe.bus.*;
 import net.soundvibe.domain.account.Account;
 import net.soundvibe.domain.account.event.AccountDebited;
+import net.soundvibe.domain.base.Event;
 import net.soundvibe.domain.transfer.event.*;
 import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.*;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -48,4 +51,35 @@ class MoneyTransferRepositoryTest {
         assertEquals(Optional.of(moneyTransferred), sut.findById(moneyTransferred.transferId));
         assertEquals(Optional.empty(), sut.findById("unknownId"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_find_transfers_evicted_from_heap() {
+        var repository = new MoneyTransferRepository(10, Duration.ofHours(1), 64 * 1024);
+        var transfers = IntStream.range(0, 100)
+                .mapToObj(i -> new MoneyTransferred("transfer-" + i, Money.of(i, "EUR"), "account1", "account2"))
+                .collect(Collectors.toList());
+        transfers.forEach(repository::replay);
+        repository.cleanUp();
+
+        for (var moneyTransferred : transfers) {
+            assertEquals(Optional.of(moneyTransferred), repository.findById(moneyTransferred.transferId));
+        }
+        var all = new ArrayList<Event>();
+        repository.forEach(all::add);
+        assertEquals(100, all.size());
+    }
+
+    @Test
+    void should_overwrite_oldest_transfers_when_off_heap_ring_is_full() {
+        var repository = new MoneyTransferRepository(1, Duration.ofHours(1), 4096);
+        var failures = IntStream.range(0, 1000)
+                .mapToObj(i -> new MoneyTransferFailed("transfer-" + i, "cause"))
+                .collect(Collectors.toList());
+        failures.forEach(repository::replay);
+        repository.cleanUp();
+
+        assertEquals(Optional.empty(), repository.findById("transfer-0"));
+        assertEquals(Optional.of(failures.get(999)), repository.findById("transfer-999"));
+        assertEquals(Optional.of(failures.get(990)), repository.findById("transfer-990"));
+    }
+}
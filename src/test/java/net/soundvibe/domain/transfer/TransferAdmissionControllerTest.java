@@ -0,0 +1,105 @@
+package net.soundvibe.domain.transfer;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TransferAdmissionControllerTest {
+
+    private final EventBus eventBus = new RxEventBus();
+    private final TransferAdmissionController sut = new TransferAdmissionController(2);
+
+    private Disposable disposable;
+
+    @BeforeEach
+    void setUp() {
+        disposable = sut.subscribe(eventBus);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        disposable.dispose();
+        eventBus.close();
+    }
+
+    @Test
+    void should_reject_transfers_when_capacity_is_reached() {
+        assertTrue(sut.tryAdmit("1"));
+        assertTrue(sut.tryAdmit("2"));
+        assertFalse(sut.tryAdmit("3"));
+        assertEquals(2, sut.inFlight());
+    }
+
+    @Test
+    void should_admit_again_when_transfer_outcomes_are_published() {
+        assertTrue(sut.tryAdmit("1"));
+        assertTrue(sut.tryAdmit("2"));
+
+        eventBus.publish(new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to"));
+        assertTrue(sut.tryAdmit("3"));
+        assertFalse(sut.tryAdmit("4"));
+
+        eventBus.publish(new MoneyTransferFailed("2", "cause"));
+        eventBus.publish(new MoneyTransferFailed("3", "cause"));
+        assertEquals(0, sut.inFlight());
+    }
+
+    @Test
+    void should_ignore_outcomes_of_transfers_which_were_not_admitted() {
+        assertTrue(sut.tryAdmit("1"));
+        assertTrue(sut.tryAdmit("1"));
+        assertEquals(1, sut.inFlight());
+
+        eventBus.publish(new MoneyTransferFailed("unknown", "cause"));
+        eventBus.publish(new MoneyTransferFailed("1", "cause"));
+        eventBus.publish(new MoneyTransferFailed("1", "cause"));
+        assertEquals(0, sut.inFlight());
+    }
+
+    @Test
+    void should_admit_again_when_admitted_transfers_are_abandoned() {
+        assertTrue(sut.tryAdmit("1"));
+        assertTrue(sut.tryAdmit("2"));
+
+        sut.abandon("1");
+        sut.abandon("1");
+        assertEquals(1, sut.inFlight());
+        assertTrue(sut.tryAdmit("3"));
+
+        eventBus.publish(new MoneyTransferFailed("1", "cause"));
+        assertEquals(2, sut.inFlight());
+    }
+
+    @Test
+    void should_release_admitted_transfers_which_never_complete_once_timed_out() {
+        var clock = new AtomicLong();
+        var admissionController = new TransferAdmissionController(2, Duration.ofSeconds(1), clock::get);
+        assertTrue(admissionController.tryAdmit("1"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(admissionController.tryAdmit("2"));
+        assertFalse(admissionController.tryAdmit("3"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(admissionController.tryAdmit("3"));
+        assertEquals(2, admissionController.inFlight());
+        assertFalse(admissionController.tryAdmit("4"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(admissionController.tryAdmit("4"));
+        assertEquals(2, admissionController.inFlight());
+    }
+
+    @Test
+    void should_not_accept_non_positive_capacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TransferAdmissionController(0));
+    }
+}
@@ -0,0 +1,68 @@
+package net.soundvibe.domain.transfer;
+
+import io.reactivex.disposables.Disposable;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TransferCompletionsTest {
+
+    private final EventBus eventBus = new RxEventBus();
+    private final TransferCompletions sut = new TransferCompletions();
+
+    private Disposable disposable;
+
+    @BeforeEach
+    void setUp() {
+        disposable = sut.subscribe(eventBus);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        disposable.dispose();
+        eventBus.close();
+    }
+
+    @Test
+    void should_complete_awaited_transfers_with_their_outcome() {
+        var transferred = sut.await("1");
+        var failed = sut.await("2");
+
+        var moneyTransferred = new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to");
+        var moneyTransferFailed = new MoneyTransferFailed("2", "cause");
+        eventBus.publish(new MoneyTransferFailed("3", "cause"));
+        eventBus.publish(moneyTransferred);
+        eventBus.publish(moneyTransferFailed);
+
+        assertEquals(moneyTransferred, transferred.getNow(null));
+        assertEquals(moneyTransferFailed, failed.getNow(null));
+    }
+
+    @Test
+    void should_not_complete_cancelled_transfers() {
+        var completion = sut.await("1");
+        sut.cancel("1", completion);
+
+        eventBus.publish(new MoneyTransferFailed("1", "cause"));
+
+        assertTrue(completion.isCancelled());
+        assertNotSame(completion, sut.await("1"));
+    }
+
+    @Test
+    void should_keep_other_waiters_of_a_transfer_waiting_when_one_cancels() {
+        var cancelled = sut.await("1");
+        var awaited = sut.await("1");
+        sut.cancel("1", cancelled);
+
+        var moneyTransferred = new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to");
+        eventBus.publish(moneyTransferred);
+
+        assertTrue(cancelled.isCancelled());
+        assertEquals(moneyTransferred, awaited.getNow(null));
+    }
+}
@@ -0,0 +1,57 @@
+package net.soundvibe.domain.transfer;
+
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TransferIdempotencyIndexTest {
+
+    private final TransferIdempotencyIndex sut = new TransferIdempotencyIndex(100, Duration.ofHours(1));
+
+    @Test
+    void should_find_recorded_outcomes() {
+        var moneyTransferred = new MoneyTransferred("1", Money.of(1, "EUR"), "from", "to");
+        var moneyTransferFailed = new MoneyTransferFailed("2", "cause");
+        sut.record("1", moneyTransferred);
+        sut.record("2", moneyTransferFailed);
+
+        assertEquals(moneyTransferred, sut.find("1"));
+        assertEquals(moneyTransferFailed, sut.find("2"));
+        assertNull(sut.find("3"));
+    }
+
+    @Test
+    void should_remember_ids_for_at_least_one_generation() {
+        for (int i = 0; i < 1000; i++) {
+            sut.record(String.valueOf(i), new MoneyTransferFailed(String.valueOf(i), "cause"));
+            assertNotNull(sut.find(String.valueOf(Math.max(0, i - 100))));
+        }
+
+        assertNull(sut.find("0"));
+        assertTrue(sut.size() <= 200);
+    }
+
+    @Test
+    void should_retire_generation_when_window_passes() throws InterruptedException {
+        var index = new TransferIdempotencyIndex(100, Duration.ofMillis(1));
+        index.record("1", new MoneyTransferFailed("1", "cause"));
+        Thread.sleep(5);
+        index.record("2", new MoneyTransferFailed("2", "cause"));
+        Thread.sleep(5);
+        index.record("3", new MoneyTransferFailed("3", "cause"));
+
+        assertNull(index.find("1"));
+        assertNotNull(index.find("2"));
+        assertNotNull(index.find("3"));
+    }
+
+    @Test
+    void should_not_accept_non_positive_entries() {
+        assertThrows(IllegalArgumentException.class, () -> new TransferIdempotencyIndex(0, Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,173 @@
+package net.soundvibe.journal;
+
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final EventBus eventBus = new RxEventBus();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        eventBus.close();
+    }
+
+    @Test
+    void should_encode_and_decode_transfer_command() {
+        var transferMoney = new TransferMoney("transfer", "from", null, Money.of(10.11, "EUR"));
+        var buffer = ByteBuffer.allocate(1024);
+
+        EventCodec.encode(transferMoney, buffer);
+        buffer.flip();
+        var decoded = EventCodec.decodeTransferMoney(buffer);
+
+        assertEquals(transferMoney.toString(), decoded.toString());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void should_encode_and_decode_every_supported_event() {
+        var account = new Account("id", "foo", "bar", Money.of(10.59, "EUR"), "tx");
+        var events = List.<Event>of(
+                new AccountOpened(account),
+                new AccountCredited(Money.of(1.5, "EUR"), account),
+                new AccountDebited(Money.of(1500, "JPY"), account),
+                new AccountClosed(new Account("id", "foo", "bar", Money.of(0, "EUR"), null)),
+                new MoneyTransferred("transfer", Money.of(100, "EUR"), "from", "to"),
+                new MoneyTransferFailed("failed", "cause"),
+                new MoneyTransferFailed("failed", "cause", "from", "to"));
+
+        var buffer = ByteBuffer.allocate(1024);
+        for (var event : events) {
+            assertTrue(EventCodec.supports(event));
+            buffer.clear();
+            EventCodec.encode(event, buffer);
+            buffer.flip();
+            var decoded = EventCodec.decode(buffer);
+            assertEquals(event, decoded);
+            assertEquals(event.toString(), decoded.toString());
+        }
+    }
+
+    @Test
+    void should_encode_account_version_and_decode_accounts_journaled_without_it() {
+        var account = new Account("id", "foo", "bar", Money.of(10, "EUR"), "tx", 42L);
+        var buffer = ByteBuffer.allocate(1024);
+        EventCodec.encode(new AccountOpened(account), buffer);
+        buffer.flip();
+
+        assertEquals(42L, ((AccountOpened) EventCodec.decode(buffer.duplicate())).account.version());
+        buffer.limit(buffer.limit() - Long.BYTES);
+        var legacy = ((AccountOpened) EventCodec.decode(buffer)).account;
+        assertEquals(0L, legacy.version());
+        assertEquals("tx", legacy.transactionId);
+    }
+
+    @Test
+    void should_replay_journaled_events_in_order() {
+        var events = events(100);
+        try (var journal = new EventJournal(directory, SEGMENT_SIZE, 1L, 16)) {
+            var disposable = journal.subscribe(eventBus);
+            events.forEach(eventBus::publish);
+            awaitSequence(journal, events.size());
+            disposable.dispose();
+        }
+
+        assertEquals(events, replay(0L));
+        assertEquals(events.subList(40, events.size()), replay(40L));
+    }
+
+    @Test
+    void should_roll_segments_when_full() {
+        var events = events(500);
+        try (var journal = new EventJournal(directory, 1024, 1L, 16)) {
+            var disposable = journal.subscribe(eventBus);
+            events.forEach(eventBus::publish);
+            awaitSequence(journal, events.size());
+            disposable.dispose();
+        }
+
+        assertTrue(JournalReader.segments(directory).size() > 1);
+        assertEquals(events, replay(0L));
+        assertEquals(events.subList(450, events.size()), replay(450L));
+    }
+
+    @Test
+    void should_continue_sequence_after_reopening() {
+        var events = events(20);
+        try (var journal = new EventJournal(directory, SEGMENT_SIZE, 1L, 16)) {
+            journal.commit(events.subList(0, 10));
+        }
+        try (var journal = new EventJournal(directory, SEGMENT_SIZE, 1L, 16)) {
+            assertEquals(10L, journal.lastSequence());
+            journal.commit(events.subList(10, 20));
+            assertEquals(20L, journal.lastSequence());
+        }
+
+        assertEquals(events, replay(0L));
+    }
+
+    @Test
+    void should_ignore_torn_record_at_the_tail() throws IOException {
+        var events = events(10);
+        try (var journal = new EventJournal(directory, SEGMENT_SIZE, 1L, 16)) {
+            journal.commit(events.subList(0, 5));
+        }
+        var segment = JournalReader.segments(directory).get(0);
+        var validEnd = JournalSegment.openReadOnly(segment).scan((sequence, record) -> {});
+        try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3, 4, 5, 6, 7}), validEnd);
+        }
+
+        try (var journal = new EventJournal(directory, SEGMENT_SIZE, 1L, 16)) {
+            assertEquals(5L, journal.lastSequence());
+            journal.commit(events.subList(5, 10));
+        }
+
+        assertEquals(events, replay(0L));
+    }
+
+    private List<Event> replay(long afterSequence) {
+        var replayed = new ArrayList<Event>();
+        JournalReader.replay(directory, afterSequence, (event, sequence) -> replayed.add(event));
+        return replayed;
+    }
+
+    private static List<Event> events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> i % 2 == 0 ?
+                        new MoneyTransferred("transfer" + i, Money.of(i, "EUR"), "from", "to") :
+                        new MoneyTransferFailed("transfer" + i, "cause" + i))
+                .collect(Collectors.toList());
+    }
+
+    private static void awaitSequence(EventJournal journal, long sequence) {
+        var deadline = System.currentTimeMillis() + 10_000L;
+        while (journal.lastSequence() < sequence && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(sequence, journal.lastSequence());
+    }
+}
@@ -0,0 +1,117 @@
+package net.soundvibe.journal;
+
+import net.soundvibe.domain.account.*;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.MoneyTransferRepository;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class SnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    private Snapshots sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new Snapshots(directory, 2);
+    }
+
+    @Test
+    void should_restore_accounts_and_transfers_from_latest_snapshot() {
+        var accountRepository = new AccountRepository();
+        var moneyTransferRepository = new MoneyTransferRepository();
+        accountRepository.open(new Account("a", "foo", "bar", Money.of(10.5, "EUR"), null));
+        accountRepository.open(new Account("b", "foo", "bar", Money.of(1500, "JPY"), "tx"));
+        moneyTransferRepository.replay(new MoneyTransferred("t1", Money.of(1, "EUR"), "a", "b"));
+        moneyTransferRepository.replay(new MoneyTransferFailed("t2", "cause"));
+
+        sut.take(5L, accountRepository, moneyTransferRepository);
+        accountRepository.replay(new AccountCredited(Money.of(1, "EUR"), new Account("a", "foo", "bar", Money.of(9.5, "EUR"), "t3")));
+        sut.take(7L, accountRepository, moneyTransferRepository);
+
+        var restoredAccounts = new AccountRepository();
+        var restoredTransfers = new MoneyTransferRepository();
+        assertEquals(7L, new Snapshots(directory, 2).restore(restoredAccounts, restoredTransfers));
+
+        assertEquals(Money.of(9.5, "EUR"), restoredAccounts.findById("a").map(Account::balance).get());
+        assertEquals("t3", restoredAccounts.findById("a").map(account -> account.transactionId).get());
+        assertEquals(Money.of(1500, "JPY"), restoredAccounts.findById("b").map(Account::balance).get());
+        assertEquals(MoneyTransferred.class, restoredTransfers.findById("t1").get().getClass());
+        assertEquals(MoneyTransferFailed.class, restoredTransfers.findById("t2").get().getClass());
+    }
+
+    @Test
+    void should_fall_back_to_older_snapshot_when_latest_is_corrupted() throws IOException {
+        var accountRepository = new AccountRepository();
+        var moneyTransferRepository = new MoneyTransferRepository();
+        accountRepository.open(new Account("a", "foo", "bar", Money.of(10, "EUR"), null));
+        sut.take(1L, accountRepository, moneyTransferRepository);
+        accountRepository.open(new Account("b", "foo", "bar", Money.of(20, "EUR"), null));
+        var latest = sut.take(2L, accountRepository, moneyTransferRepository).get();
+
+        var bytes = Files.readAllBytes(latest);
+        bytes[bytes.length / 2] ^= 0x7f;
+        Files.write(latest, bytes);
+
+        var restoredAccounts = new AccountRepository();
+        assertEquals(1L, sut.restore(restoredAccounts, new MoneyTransferRepository()));
+        assertTrue(restoredAccounts.findById("a").isPresent());
+        assertTrue(restoredAccounts.findById("b").isEmpty());
+    }
+
+    @Test
+    void should_keep_only_retained_snapshots() throws IOException {
+        var accountRepository = new AccountRepository();
+        var moneyTransferRepository = new MoneyTransferRepository();
+        for (long sequence = 1; sequence <= 4; sequence++) {
+            sut.take(sequence, accountRepository, moneyTransferRepository);
+        }
+        assertFalse(sut.take(4L, accountRepository, moneyTransferRepository).isPresent());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("00000000000000000003.snapshot", "00000000000000000004.snapshot"),
+                    files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void should_replay_journal_tail_in_parallel() {
+        var journalDirectory = directory.resolve("journal");
+        var journal = new EventJournal(journalDirectory, 64 * 1024, 1, 1024);
+        var events = new ArrayList<Event>();
+        for (int i = 0; i < 1000; i++) {
+            var accountId = "account-" + (i % 10);
+            events.add(new AccountCredited(Money.of(1, "EUR"), new Account(accountId, "foo", "bar", Money.of(i, "EUR"), "tx-" + i)));
+            events.add(new MoneyTransferred("tx-" + i, Money.of(1, "EUR"), accountId, accountId));
+        }
+        journal.commit(events);
+        journal.close();
+
+        var accountRepository = new AccountRepository();
+        var moneyTransferRepository = new MoneyTransferRepository();
+        var lastSequence = JournalReader.replay(journalDirectory, 100L, 4, event -> {
+            accountRepository.replay(event);
+            moneyTransferRepository.replay(event);
+        });
+
+        assertEquals(2000L, lastSequence);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Money.of(990 + i, "EUR"), accountRepository.findById("account-" + i).map(Account::balance).get());
+        }
+        assertTrue(moneyTransferRepository.findById("tx-49").isEmpty());
+        assertTrue(moneyTransferRepository.findById("tx-50").isPresent());
+    }
+}
@@ -0,0 +1,38 @@
+package net.soundvibe.json;
+
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.AccountCredited;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.MoneyTransferFailed;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class CborTest {
+
+    @Test
+    void should_write_and_read_buffers() {
+        var transferMoney = new TransferMoney("id", "from", "to", Money.of(10.11, "EUR"));
+        var buffer = Cbor.toBuffer(transferMoney);
+
+        var actual = Cbor.parse(buffer, TransferMoney.class);
+        assertEquals(transferMoney, actual);
+        assertEquals(transferMoney.amountToTransfer, actual.amountToTransfer);
+        assertEquals(transferMoney.accountIdTo, actual.accountIdTo);
+        assertTrue(buffer.length() < Json.toBuffer(transferMoney).length());
+    }
+
+    @Test
+    void should_write_and_read_events() {
+        var moneyTransferFailed = new MoneyTransferFailed("id", "cause", "from", null);
+        var accountCredited = new AccountCredited(Money.of(55, "USD"),
+                new Account("id", "foo", "bar", Money.of(0, "EUR"), null));
+
+        assertEquals(Json.toString(moneyTransferFailed),
+                Json.toString(Cbor.parse(Cbor.toBuffer(moneyTransferFailed), MoneyTransferFailed.class)));
+        assertEquals(Json.toString(accountCredited),
+                Json.toString(Cbor.parse(Cbor.toBuffer(accountCredited), AccountCredited.class)));
+    }
+}
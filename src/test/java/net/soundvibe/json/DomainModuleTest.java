@@ -0,0 +1,123 @@
+package net.soundvibe.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.soundvibe.domain.account.Account;
+import net.soundvibe.domain.account.event.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class DomainModuleTest {
+
+    private final ObjectMapper reflective = Json.createMapper(false);
+    private final ObjectMapper sut = Json.createMapper(true);
+
+    private final List<Object> values = List.of(
+            new TransferMoney("id", "from", "to", Money.of(10.11, "EUR")),
+            new TransferMoney("id", "from", null, Money.of(10, "EUR")),
+            new TransferMoney("é\"\\\n ", "from", "to", Money.of(new BigDecimal("1E+3"), "EUR")),
+            new TransferMoney("id", "from", "to", Money.of(new BigDecimal("0.1000"), "USD")),
+            new TransferMoney("id", "from", "to", Money.of(5, "JPY")),
+            new TransferMoney("id", "from", "to", Money.of(-12345678901234.56, "GBP")),
+            new MoneyTransferred("id", Money.of(10.11, "EUR"), "from", "to"),
+            new MoneyTransferred("id", Money.of(1, "JPY"), null, null),
+            new MoneyTransferFailed("id", "Insufficient funds\t\"quoted\""),
+            new MoneyTransferFailed("id", null, "from", "to"),
+            new Account("id", "Linas", "Naginionis", Money.of(25.25, "EUR"), null),
+            new Account("id", "Ąž", "😀", Money.of(0, "USD"), "tx"),
+            new AccountCredited(Money.of(55, "USD"), new Account("id", "foo", "bar", Money.of(0, "EUR"), null)),
+            new AccountDebited(Money.of(55, "USD"), new Account("id", "foo", "bar", Money.of(7.5, "EUR"), "tx")));
+
+    @Test
+    void should_write_byte_identical_json() throws Exception {
+        for (var value : values) {
+            assertArrayEquals(reflective.writeValueAsBytes(value), sut.writeValueAsBytes(value),
+                    () -> "Different JSON of " + value);
+        }
+    }
+
+    /**
+     * JSON captured from the baseline format (the account open and close events were captured when they were added).
+     */
+    private final Map<String, Object> golden = Map.of(
+            "TransferMoney", new TransferMoney("3f1c2a9e-transfer", "from-account", "to-account", Money.of(10.11, "EUR")),
+            "MoneyTransferred", new MoneyTransferred("3f1c2a9e-transfer", Money.of(10.11, "EUR"), "from-account", "to-account"),
+            "MoneyTransferFailed", new MoneyTransferFailed("3f1c2a9e-transfer", "Insufficient funds"),
+            "Account", new Account("from-account", "Linas", "Naginionis", Money.of(25.25, "EUR"), "3f1c2a9e-transfer"),
+            "AccountOpened", new AccountOpened(new Account("from-account", "Linas", "Naginionis", Money.of(25.25, "EUR"), null)),
+            "AccountClosed", new AccountClosed(new Account("from-account", "Linas", "Naginionis", Money.of(0, "EUR"), "3f1c2a9e-transfer")),
+            "AccountCredited", new AccountCredited(Money.of(10.11, "EUR"),
+                    new Account("from-account", "Linas", "Naginionis", Money.of(15.14, "EUR"), "3f1c2a9e-transfer")),
+            "AccountDebited", new AccountDebited(Money.of(10.11, "EUR"),
+                    new Account("to-account", "Ąž", "😀", Money.of(10.11, "EUR"), null)));
+
+    @Test
+    void should_write_golden_json() throws Exception {
+        for (var entry : golden.entrySet()) {
+            var expected = golden(entry.getKey());
+            assertEquals(expected, sut.writeValueAsString(entry.getValue()), entry.getKey());
+            assertEquals(expected, reflective.writeValueAsString(entry.getValue()), entry.getKey());
+        }
+    }
+
+    @Test
+    void should_read_golden_json() throws Exception {
+        for (var entry : golden.entrySet()) {
+            // account open and close events are only ever written
+            if (entry.getValue() instanceof AccountOpened || entry.getValue() instanceof AccountClosed) continue;
+            var json = golden(entry.getKey());
+            var actual = sut.readValue(json, entry.getValue().getClass());
+            assertEquals(json, reflective.writeValueAsString(actual), entry.getKey());
+        }
+    }
+
+    @Test
+    void should_read_what_it_writes() throws Exception {
+        for (var value : values) {
+            var actual = sut.readValue(sut.writeValueAsBytes(value), value.getClass());
+            assertArrayEquals(reflective.writeValueAsBytes(value), reflective.writeValueAsBytes(actual),
+                    () -> "Different value after reading " + value);
+        }
+    }
+
+    @Test
+    void should_read_same_values_as_reflective_mapper() throws Exception {
+        var json = "{\"unknown\":{\"nested\":[1,2]},\"id\":\"1\",\"accountIdTo\":\"to\",\"accountIdFrom\":\"from\"," +
+                "\"amountToTransfer\":{\"currency\":\"EUR\",\"amount\":\"1.5\"}}";
+
+        var expected = reflective.readValue(json, TransferMoney.class);
+        var actual = sut.readValue(json, TransferMoney.class);
+
+        assertEquals(reflective.writeValueAsString(expected), reflective.writeValueAsString(actual));
+    }
+
+    @Test
+    void should_reject_invalid_values_like_reflective_mapper() {
+        var invalid = List.of(
+                "{\"id\":\"1\",\"accountIdFrom\":\"from\",\"accountIdTo\":\"to\"}",
+                "{\"id\":\"1\",\"amountToTransfer\":{\"amount\":1,\"currency\":\"XYZ\"}}",
+                "{\"id\":\"1\",\"amountToTransfer\":{\"amount\":\"ten\",\"currency\":\"EUR\"}}",
+                "{\"id\":{},\"amountToTransfer\":{\"amount\":1,\"currency\":\"EUR\"}}",
+                "[]");
+        for (var json : invalid) {
+            assertThrows(Exception.class, () -> reflective.readValue(json, TransferMoney.class), json);
+            assertThrows(java.io.IOException.class, () -> sut.readValue(json, TransferMoney.class), json);
+        }
+    }
+
+    private static String golden(String name) throws IOException {
+        try (var json = DomainModuleTest.class.getResourceAsStream("/json/" + name + ".json")) {
+            assertNotNull(json, name);
+            return new String(json.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package net.soundvibe.json;
+
+import io.vavr.control.Try;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class JsonStreamParserTest {
+
+    private final List<Try<TransferMoney>> items = new ArrayList<>();
+    private final JsonStreamParser<TransferMoney> sut = Json.streamParser(TransferMoney.class, items::add);
+
+    @Test
+    void should_parse_json_array_fed_byte_by_byte() {
+        var transfers = transfers(3);
+        var json = transfers.stream().map(Json::toString).collect(Collectors.joining(",", "[", "]"));
+
+        for (byte b : json.getBytes(UTF_8)) {
+            sut.feed(new byte[]{b});
+        }
+        sut.end();
+
+        assertEquals(transfers, items.stream().map(Try::get).collect(Collectors.toList()));
+        assertEquals(Money.of(10.11, "EUR"), items.get(0).get().amountToTransfer);
+    }
+
+    @Test
+    void should_parse_ndjson_in_chunks() {
+        var transfers = transfers(100);
+        var bytes = transfers.stream().map(Json::toString).collect(Collectors.joining("\n")).getBytes(UTF_8);
+
+        for (int offset = 0; offset < bytes.length; offset += 1000) {
+            sut.feed(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 1000)));
+        }
+        sut.end();
+
+        assertEquals(transfers, items.stream().map(Try::get).collect(Collectors.toList()));
+    }
+
+    @Test
+    void should_fail_only_invalid_items() {
+        sut.feed("[{\"accountIdFrom\":\"a\",\"accountIdTo\":\"b\",\"amountToTransfer\":{\"amount\":1,\"currency\":\"EUR\"}},{},[1,2]]".getBytes(UTF_8));
+        sut.end();
+
+        assertEquals(3, items.size());
+        assertTrue(items.get(0).isSuccess());
+        assertTrue(items.get(1).isFailure());
+        assertTrue(items.get(2).isFailure());
+    }
+
+    @Test
+    void should_fail_on_malformed_or_truncated_json() {
+        assertThrows(UncheckedIOException.class, () -> sut.feed("[{\"accountIdFrom\":}".getBytes(UTF_8)));
+
+        var truncated = Json.streamParser(TransferMoney.class, items::add);
+        truncated.feed("[{\"accountIdFrom\":\"a\"".getBytes(UTF_8));
+        assertThrows(UncheckedIOException.class, truncated::end);
+    }
+
+    private static List<TransferMoney> transfers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new TransferMoney("transfer-" + i, "from-" + i, "to-" + i, Money.of(10.11, "EUR")))
+                .collect(Collectors.toList());
+    }
+}
@@ -2,9 +2,11 @@ package net.soundvibe.json;
 
 import net.soundvibe.domain.account.Account;
 import net.soundvibe.domain.account.event.AccountCredited;
+import net.soundvibe.domain.transfer.command.TransferMoney;
 import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.*;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
@@ -22,4 +24,14 @@ class JsonTest {
         var actual = Json.parse(json, AccountCredited.class);
         assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_write_and_read_buffers() {
+        var expected = new TransferMoney("id", "from", "to", Money.of(10.11, "EUR"));
+        var buffer = Json.toBuffer(expected);
+
+        assertEquals(Json.toString(expected), buffer.toString(UTF_8));
+        assertEquals(expected, Json.parse(buffer, TransferMoney.class));
+        assertEquals(expected, Json.parse(buffer, TransferMoney.class));
+    }
+}
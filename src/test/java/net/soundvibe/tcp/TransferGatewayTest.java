@@ -0,0 +1,147 @@
+package net.soundvibe.tcp;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.*;
+import io.vertx.core.parsetools.RecordParser;
+import net.soundvibe.bus.*;
+import net.soundvibe.domain.account.*;
+import net.soundvibe.domain.base.Event;
+import net.soundvibe.domain.transfer.*;
+import net.soundvibe.domain.transfer.command.TransferMoney;
+import net.soundvibe.domain.transfer.event.*;
+import net.soundvibe.journal.EventCodec;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TransferGatewayTest {
+
+    private static final int TRANSFERS = 1000;
+
+    private final Vertx vertx = Vertx.vertx();
+    private final EventBus eventBus = new RxEventBus();
+    private final AccountRepository accountRepository = new AccountRepository();
+    private final TransferAdmissionController admissionController = new TransferAdmissionController(100);
+    private final TransferCompletions completions = new TransferCompletions();
+    private final TransferGateway sut = new TransferGateway(eventBus, admissionController, completions, 10);
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    private NetServer netServer;
+    private NetSocket socket;
+    private final BlockingQueue<Event> outcomes = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        disposables.addAll(
+                new PartitionedAccountProcessor(accountRepository, 2).subscribe(eventBus),
+                admissionController.subscribe(eventBus),
+                completions.subscribe(eventBus));
+
+        var listening = new CompletableFuture<NetServer>();
+        vertx.createNetServer()
+                .connectHandler(sut::handle)
+                .listen(0, "localhost", result -> complete(listening, result.result(), result.cause()));
+        netServer = listening.get(10, TimeUnit.SECONDS);
+
+        var connected = new CompletableFuture<NetSocket>();
+        vertx.createNetClient().connect(netServer.actualPort(), "localhost",
+                result -> complete(connected, result.result(), result.cause()));
+        socket = connected.get(10, TimeUnit.SECONDS);
+
+        var parser = RecordParser.newFixed(Integer.BYTES);
+        parser.handler(new Handler<>() {
+            boolean readingLength = true;
+
+            @Override
+            public void handle(Buffer buffer) {
+                if (readingLength) {
+                    parser.fixedSizeMode(buffer.getInt(0));
+                } else {
+                    outcomes.add(EventCodec.decode(ByteBuffer.wrap(buffer.getBytes())));
+                    parser.fixedSizeMode(Integer.BYTES);
+                }
+                readingLength = !readingLength;
+            }
+        });
+        socket.handler(parser).closeHandler(v -> closed.complete(null));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        disposables.dispose();
+        eventBus.close();
+        var closing = new CompletableFuture<Void>();
+        vertx.close(result -> closing.complete(null));
+        closing.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_answer_every_pipelined_transfer_with_its_outcome() throws Exception {
+        var accountFrom = accountRepository.open(new Account(UUID.randomUUID().toString(), "From", "Surname", Money.of(TRANSFERS - 1, "EUR"), null));
+        var accountTo = accountRepository.open(new Account(UUID.randomUUID().toString(), "To", "Surname", Money.of(0, "EUR"), null));
+        var transfers = new HashMap<String, TransferMoney>();
+        var frames = Buffer.buffer();
+        for (int i = 0; i < TRANSFERS; i++) {
+            var transferMoney = new TransferMoney(UUID.randomUUID().toString(), accountFrom.id, accountTo.id, Money.of(1, "EUR"));
+            transfers.put(transferMoney.id, transferMoney);
+            frames.appendBuffer(frame(transferMoney));
+        }
+
+        socket.write(frames);
+
+        var transferred = 0;
+        var failed = 0;
+        for (int i = 0; i < TRANSFERS; i++) {
+            var outcome = outcomes.poll(10, TimeUnit.SECONDS);
+            if (outcome instanceof MoneyTransferred) {
+                assertNotNull(transfers.remove(((MoneyTransferred) outcome).transferId));
+                transferred++;
+            } else {
+                assertNotNull(transfers.remove(((MoneyTransferFailed) outcome).transferId));
+                failed++;
+            }
+        }
+        assertEquals(TRANSFERS - 1, transferred);
+        assertEquals(1, failed);
+        assertTrue(transfers.isEmpty());
+        assertEquals(0, admissionController.inFlight());
+        assertEquals(Money.of(TRANSFERS - 1, "EUR"), accountRepository.findById(accountTo.id).map(Account::balance).orElseThrow());
+    }
+
+    @Test
+    void should_close_connection_on_malformed_frame() throws Exception {
+        socket.write(Buffer.buffer().appendInt(3).appendBytes(new byte[]{1, 2, 3}));
+
+        closed.get(10, TimeUnit.SECONDS);
+        assertTrue(outcomes.isEmpty());
+    }
+
+    @Test
+    void should_not_accept_non_positive_max_in_flight() {
+        assertThrows(IllegalArgumentException.class, () -> new TransferGateway(eventBus, admissionController, completions, 0));
+    }
+
+    private static Buffer frame(TransferMoney transferMoney) {
+        var buffer = ByteBuffer.allocate(512);
+        EventCodec.encode(transferMoney, buffer);
+        buffer.flip();
+        return Buffer.buffer().appendInt(buffer.remaining()).appendBytes(buffer.array(), 0, buffer.remaining());
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T result, Throwable cause) {
+        if (cause != null) {
+            future.completeExceptionally(cause);
+        } else {
+            future.complete(result);
+        }
+    }
+}